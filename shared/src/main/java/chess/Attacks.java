@@ -0,0 +1,213 @@
+package chess;
+
+/**
+ * Precomputed per-square attack tables for every piece type.
+ * <p>
+ * Knight, king and pawn attacks don't depend on other pieces, so each is a
+ * single mask per square (and per color for pawns).
+ * <p>
+ * Rook and bishop attacks are looked up with "magic" multiplication: the
+ * blockers on a piece's relevant rays are multiplied by a per-square
+ * constant and shifted down to an index into that square's attack table.
+ * The magic constants were found ahead of time by a seeded random search;
+ * the tables themselves are built once when the class loads.
+ */
+final class Attacks {
+
+    private static final long[] ROOK_MAGICS = {
+            0x2080002080400010L, 0x00C0002001401000L, 0x2100110008402002L, 0x0880080081041000L,
+            0x0200020020041008L, 0x2300040008010012L, 0x0C00283004008201L, 0x0180010000407A80L,
+            0x0168800080400020L, 0x0010400040201000L, 0x1001002001001048L, 0x1001002408100100L,
+            0x0801000408010012L, 0x4001000209000400L, 0x08A20004C8020001L, 0x2002801145002280L,
+            0x0080860021004200L, 0x001000C009402002L, 0x00B0002004002800L, 0x100A808010020800L,
+            0x8101010008000410L, 0x0244008002000480L, 0x0000040010810208L, 0x2000020000448534L,
+            0x4104400480008033L, 0x0000810100204000L, 0x0440430900200010L, 0x4600240900100100L,
+            0x0060080080040080L, 0x0001000300080400L, 0x0004084400011002L, 0x0023040200008041L,
+            0x0580050043002080L, 0x0400804002802008L, 0x0001002001004010L, 0x1000200901001000L,
+            0x4410800801800C00L, 0xA012003806001004L, 0x0020100104008802L, 0x0004808402000041L,
+            0x0010400170898000L, 0x0080500020004004L, 0x1040408012020020L, 0x8010040008004040L,
+            0x2001080100110004L, 0x0000020004008080L, 0x0021010810040002L, 0x0800008C43020024L,
+            0x0000800021005100L, 0x0070201040008080L, 0x0000D04282006A00L, 0x0010014400080240L,
+            0x0001080110050100L, 0x0012000810240600L, 0x0402000801040200L, 0x028100108A004100L,
+            0x0050800300102045L, 0x8208210040120882L, 0x8010600101183441L, 0x020B000910006045L,
+            0x0241001002480005L, 0x0081000400880241L, 0x0000009008024124L, 0x0048122980410402L
+    };
+
+    private static final long[] BISHOP_MAGICS = {
+            0x0848020822040013L, 0x8010A40085821200L, 0x0008008430840822L, 0x0808048108040000L,
+            0x1304042100008104L, 0x5001012010204023L, 0x81048801B8200420L, 0x200A008084012000L,
+            0x0040102001042084L, 0x840A505042428020L, 0x0000700102202920L, 0x44101C0C10800002L,
+            0x0040040422000000L, 0x0180020802090202L, 0x4020020811041202L, 0x000104308C042000L,
+            0x4140661002424400L, 0x0028012008010460L, 0x0188062102002A00L, 0x0014004840102008L,
+            0x0105000290400002L, 0x8001022200410400L, 0x104A041918013446L, 0x008A000082008238L,
+            0x04A0060008100430L, 0x0008220008820801L, 0x2508041208005010L, 0x4008080200202020L,
+            0x2441001013004000L, 0x0030008060407000L, 0x4008108000420800L, 0x0012021050290100L,
+            0x0210080482200500L, 0xCC01112048100480L, 0x0020402806500440L, 0x00048E0080580080L,
+            0x0040102020020080L, 0x0028010440080807L, 0x4601041108008800L, 0x8040810E04104200L,
+            0x901210110400088AL, 0xA003080212081050L, 0x00C1004048401004L, 0x900000A014400800L,
+            0x0008021040405401L, 0x4020008206002090L, 0x0004190424030100L, 0x0424008A02026250L,
+            0x8004088250900040L, 0x1C00430088A04200L, 0x0001020094040001L, 0x8040210020880061L,
+            0x2010040450442032L, 0x0800840850044001L, 0x0004040802140004L, 0x0004080A04222020L,
+            0x8088802110022000L, 0x1081A10416114400L, 0x0205010A24060820L, 0x0000000720411080L,
+            0x1008000208430400L, 0x580C026028810840L, 0x802020441020A110L, 0x12C0022401020018L
+    };
+
+    private static final int[][] ROOK_DIRS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+    private static final int[][] BISHOP_DIRS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {-2, 1}, {2, -1}, {-2, -1}, {1, 2}, {-1, 2}, {1, -2}, {-1, -2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {1, 1}, {0, 1}, {-1, 0}, {-1, -1}, {0, -1}, {-1, 1}, {1, -1}};
+    private static final int[][] WHITE_PAWN_STEPS = {{1, 1}, {1, -1}};
+    private static final int[][] BLACK_PAWN_STEPS = {{-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    private static final long[] BETWEEN = new long[64 * 64];
+    private static final long[] LINE = new long[64 * 64];
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] ROOK_TABLE = new long[64][];
+    private static final long[][] BISHOP_TABLE = new long[64][];
+
+    static {
+        for(int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = stepAttacks(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = stepAttacks(square, KING_STEPS);
+            PAWN_ATTACKS[Bitboards.WHITE][square] = stepAttacks(square, WHITE_PAWN_STEPS);
+            PAWN_ATTACKS[Bitboards.BLACK][square] = stepAttacks(square, BLACK_PAWN_STEPS);
+            initSlider(square, ROOK_DIRS, ROOK_MAGICS, ROOK_MASKS, ROOK_SHIFTS, ROOK_TABLE);
+            initSlider(square, BISHOP_DIRS, BISHOP_MAGICS, BISHOP_MASKS, BISHOP_SHIFTS, BISHOP_TABLE);
+        }
+        for(int from = 0; from < 64; from++) {
+            for(int to = 0; to < 64; to++) {
+                initLine(from, to);
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return squares a pawn of the given color standing on square attacks
+     */
+    static long pawnAttacks(int colorIndex, int square) {
+        return PAWN_ATTACKS[colorIndex][square];
+    }
+
+    static long rookAttacks(int square, long occupancy) {
+        return ROOK_TABLE[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+    }
+
+    static long bishopAttacks(int square, long occupancy) {
+        return BISHOP_TABLE[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+    }
+
+    static long queenAttacks(int square, long occupancy) {
+        return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+    }
+
+    /**
+     * @return squares strictly between two squares on a shared row, column or
+     * diagonal, or 0 if they aren't aligned
+     */
+    static long between(int from, int to) {
+        return BETWEEN[(from << 6) | to];
+    }
+
+    /**
+     * @return every square on the row, column or diagonal through both squares,
+     * or 0 if they aren't aligned
+     */
+    static long line(int from, int to) {
+        return LINE[(from << 6) | to];
+    }
+
+    private static void initLine(int from, int to) {
+        if(from == to) return;
+        long ends = Bitboards.bit(from) | Bitboards.bit(to);
+
+        if((rookAttacks(from, 0) & Bitboards.bit(to)) != 0) {
+            BETWEEN[(from << 6) | to] = rookAttacks(from, Bitboards.bit(to)) & rookAttacks(to, Bitboards.bit(from));
+            LINE[(from << 6) | to] = (rookAttacks(from, 0) & rookAttacks(to, 0)) | ends;
+        } else if((bishopAttacks(from, 0) & Bitboards.bit(to)) != 0) {
+            BETWEEN[(from << 6) | to] = bishopAttacks(from, Bitboards.bit(to)) & bishopAttacks(to, Bitboards.bit(from));
+            LINE[(from << 6) | to] = (bishopAttacks(from, 0) & bishopAttacks(to, 0)) | ends;
+        }
+    }
+
+    private static long stepAttacks(int square, int[][] steps) {
+        long attacks = 0;
+        for(int[] step : steps) {
+            int row = Bitboards.row(square) + step[0];
+            int col = Bitboards.column(square) + step[1];
+            if(Bitboards.isOnBoard(row, col)) {
+                attacks |= Bitboards.bit(Bitboards.square(row, col));
+            }
+        }
+        return attacks;
+    }
+
+    private static void initSlider(int square, int[][] dirs, long[] magics, long[] masks, int[] shifts, long[][] table) {
+        long mask = relevantBlockers(square, dirs);
+        int bits = Long.bitCount(mask);
+        masks[square] = mask;
+        shifts[square] = 64 - bits;
+        table[square] = new long[1 << bits];
+
+        // Walk every subset of the mask (carry-rippler) and record its attack set
+        long blockers = 0;
+        do {
+            int index = (int) ((blockers * magics[square]) >>> shifts[square]);
+            table[square][index] = slowAttacks(square, dirs, blockers);
+            blockers = (blockers - mask) & mask;
+        } while(blockers != 0);
+    }
+
+    /**
+     * Squares along each ray whose occupancy can change the attack set; the
+     * last square of each ray is left out since nothing lies beyond it.
+     */
+    private static long relevantBlockers(int square, int[][] dirs) {
+        long mask = 0;
+        for(int[] dir : dirs) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while(Bitboards.isOnBoard(row + dir[0], col + dir[1])) {
+                mask |= Bitboards.bit(Bitboards.square(row, col));
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return mask;
+    }
+
+    private static long slowAttacks(int square, int[][] dirs, long occupancy) {
+        long attacks = 0;
+        for(int[] dir : dirs) {
+            int row = Bitboards.row(square) + dir[0];
+            int col = Bitboards.column(square) + dir[1];
+            while(Bitboards.isOnBoard(row, col)) {
+                long bit = Bitboards.bit(Bitboards.square(row, col));
+                attacks |= bit;
+                if((occupancy & bit) != 0) break;
+                row += dir[0];
+                col += dir[1];
+            }
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,64 @@
+package chess;
+
+/**
+ * Square indexing and bit helpers shared by the bitboard-backed classes.
+ * <p>
+ * Squares are numbered 0-63 starting at row 1, column 1 (a1) and running
+ * along each row, so square = (row - 1) * 8 + (column - 1).
+ */
+final class Bitboards {
+
+    static final long FILE_A = 0x0101010101010101L;
+    static final long FILE_H = FILE_A << 7;
+    static final long RANK_1 = 0xFFL;
+    static final long RANK_8 = RANK_1 << 56;
+
+    static final int WHITE = 0;
+    static final int BLACK = 1;
+
+    private Bitboards() {
+    }
+
+    static int square(int row, int col) {
+        return ((row - 1) << 3) | (col - 1);
+    }
+
+    static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    static ChessPosition position(int square) {
+        return ChessPosition.of(row(square), column(square));
+    }
+
+    static long bit(int square) {
+        return 1L << square;
+    }
+
+    static boolean isOnBoard(int row, int col) {
+        return (row >= 1 && row <= 8 && col >= 1 && col <= 8);
+    }
+
+    static int colorIndex(ChessGame.TeamColor color) {
+        return color == ChessGame.TeamColor.WHITE ? WHITE : BLACK;
+    }
+
+    static ChessGame.TeamColor teamColor(int colorIndex) {
+        return colorIndex == WHITE ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+    }
+
+    /**
+     * @return index 0-11 of the bitboard holding pieces of this color and type
+     */
+    static int pieceIndex(int colorIndex, ChessPiece.PieceType type) {
+        return colorIndex * 6 + type.ordinal();
+    }
+}
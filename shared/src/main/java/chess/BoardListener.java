@@ -0,0 +1,21 @@
+package chess;
+
+/**
+ * Receives every change to a {@link ChessBoard}'s pieces, so an outside
+ * component can keep derived state in step without rescanning the board.
+ * Moving a piece arrives as a removal followed by an addition.
+ */
+public interface BoardListener {
+
+    /**
+     * @param piece  the piece now on the square
+     * @param square 0-63, a1 = 0
+     */
+    void pieceAdded(ChessPiece piece, int square);
+
+    /**
+     * @param piece  the piece that left the square
+     * @param square 0-63, a1 = 0
+     */
+    void pieceRemoved(ChessPiece piece, int square);
+}
@@ -1,21 +1,55 @@
 package chess;
 
 import java.util.Arrays;
-import java.util.Objects;
 
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * Pieces are stored as twelve bitboards (one per color and type) plus
+ * per-color occupancy masks, so move generation and attack tests can work
+ * on whole sets of squares at once. A square-indexed array keeps the
+ * actual piece objects so {@link #getPiece} stays a single lookup.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
 
-    ChessPiece[][] squares = new ChessPiece[8][8];
+    private final long[] pieceBitboards = new long[12];
+    private final long[] colorOccupancy = new long[2];
+    private ChessPiece[] squares = new ChessPiece[64];
+    private final int[] kingSquares = {-1, -1};
+    private long zobristKey;
+    private int modificationCount;
+
+    // Running material and piece-square sums, see PieceSquareTables
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+
+    private BoardListener listener;
+
     public ChessBoard() {
 
     }
 
+    /**
+     * Creates a copy of another board. Pieces are immutable and shared, so
+     * only the arrays that place them are copied.
+     *
+     * @param other the board to copy
+     */
+    public ChessBoard(ChessBoard other) {
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.colorOccupancy, 0, colorOccupancy, 0, colorOccupancy.length);
+        System.arraycopy(other.kingSquares, 0, kingSquares, 0, kingSquares.length);
+        squares = other.squares.clone();
+        zobristKey = other.zobristKey;
+        middlegameScore = other.middlegameScore;
+        endgameScore = other.endgameScore;
+        phase = other.phase;
+    }
+
     /**
      * Adds a chess piece to the chessboard
      *
@@ -23,7 +57,15 @@ public class ChessBoard {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        addPiece(Bitboards.square(position), piece);
+    }
+
+    void addPiece(int square, ChessPiece piece) {
+        modificationCount++;
+        removePiece(square);
+        if(piece != null) {
+            putPiece(square, piece);
+        }
     }
 
     /**
@@ -34,24 +76,248 @@ public class ChessBoard {
      * position
      */
     public ChessPiece getPiece(ChessPosition position) {
-        return squares[position.getRow() - 1][position.getColumn() - 1];
+        return squares[Bitboards.square(position)];
+    }
+
+    /**
+     * Gets a chess piece by square index, as used by {@link PackedMove}
+     *
+     * @param square 0-63, a1 = 0, b1 = 1, ..., h8 = 63
+     * @return Either the piece on the square, or null if it is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return squares[square];
+    }
+
+    /**
+     * Gets every piece of one team and type as a bitboard, for evaluation
+     * and other whole-board queries
+     *
+     * @return a set bit for each square holding such a piece, bit n being square n (a1 = 0)
+     */
+    public long getPieces(ChessGame.TeamColor teamColor, ChessPiece.PieceType type) {
+        return pieceBitboards[Bitboards.pieceIndex(Bitboards.colorIndex(teamColor), type)];
+    }
+
+    /**
+     * Gets the Zobrist hash of the pieces on this board. It is updated with
+     * every {@link #addPiece} rather than recomputed, so reading it is free.
+     * Side to move, castling and en passant are folded in by
+     * {@link ChessGame#getZobristKey()}.
+     *
+     * @return 64-bit hash of the piece placement
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Gets the material and piece-square score of this board, blended between
+     * middlegame and endgame values by how much material remains. The sums
+     * are kept up to date by every {@link #addPiece}, so this is constant time.
+     *
+     * @return centipawns from White's point of view
+     */
+    public int getPositionalScore() {
+        return PieceSquareTables.taper(middlegameScore, endgameScore, phase);
+    }
+
+    /**
+     * Recomputes {@link #getPositionalScore()} from scratch by visiting every
+     * piece. Meant for debug checks that the running sums haven't drifted.
+     *
+     * @return centipawns from White's point of view
+     */
+    public int rescanPositionalScore() {
+        int middlegame = 0;
+        int endgame = 0;
+        int totalPhase = 0;
+        for(int pieceIndex = 0; pieceIndex < pieceBitboards.length; pieceIndex++) {
+            long pieces = pieceBitboards[pieceIndex];
+            while(pieces != 0) {
+                int square = Long.numberOfTrailingZeros(pieces);
+                pieces &= pieces - 1;
+                middlegame += PieceSquareTables.middlegame(pieceIndex, square);
+                endgame += PieceSquareTables.endgame(pieceIndex, square);
+                totalPhase += PieceSquareTables.phase(pieceIndex);
+            }
+        }
+        return PieceSquareTables.taper(middlegame, endgame, totalPhase);
+    }
+
+    /**
+     * Registers the one component told about every piece added to or removed
+     * from this board. Copies of the board do not inherit it.
+     *
+     * @param listener the listener, or null to stop notifying
+     */
+    public void setListener(BoardListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return the registered listener, or null if there is none
+     */
+    public BoardListener getListener() {
+        return listener;
+    }
+
+    /**
+     * @return a counter that changes whenever a piece is added, removed or the
+     * board is reset, so cached results can tell the board was edited
+     */
+    int modificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Gets where a team's king stands. The square is kept up to date as pieces
+     * are added and removed, so this is a constant-time lookup.
+     *
+     * @param teamColor the team whose king to find
+     * @return the king's position, or null if that team has no king on the board
+     */
+    public ChessPosition getKingPosition(ChessGame.TeamColor teamColor) {
+        int square = kingSquares[Bitboards.colorIndex(teamColor)];
+        return (square < 0) ? null : Bitboards.position(square);
+    }
+
+    /**
+     * @return square index of the given color's king, or -1 if it has none
+     */
+    int kingSquare(int colorIndex) {
+        return kingSquares[colorIndex];
+    }
+
+    /**
+     * @return bitboard of every piece of the given color and type
+     */
+    long pieces(int colorIndex, ChessPiece.PieceType type) {
+        return pieceBitboards[Bitboards.pieceIndex(colorIndex, type)];
+    }
+
+    /**
+     * @return bitboard of every square occupied by the given color
+     */
+    long occupancy(int colorIndex) {
+        return colorOccupancy[colorIndex];
+    }
+
+    /**
+     * @return bitboard of every occupied square
+     */
+    long occupancy() {
+        return colorOccupancy[Bitboards.WHITE] | colorOccupancy[Bitboards.BLACK];
+    }
+
+    /**
+     * Determines if any piece of the given team attacks a square, working
+     * backwards from the square: a knight, king or pawn attacks it if one
+     * sits on the matching mask, and a slider attacks it if it is the first
+     * piece along a ray leaving the square.
+     *
+     * @param position the square to test
+     * @param byColor  the attacking team
+     * @return True if a piece of byColor attacks the square
+     */
+    public boolean isSquareAttacked(ChessPosition position, ChessGame.TeamColor byColor) {
+        return isSquareAttacked(Bitboards.square(position), Bitboards.colorIndex(byColor), occupancy());
+    }
+
+    boolean isSquareAttacked(int square, int byColor) {
+        return isSquareAttacked(square, byColor, occupancy());
+    }
+
+    /**
+     * Same as {@link #isSquareAttacked(ChessPosition, ChessGame.TeamColor)} but
+     * with the blockers given explicitly, so callers can test a square as if
+     * pieces had already moved
+     */
+    boolean isSquareAttacked(int square, int byColor, long occupancy) {
+        int base = byColor * 6;
+        if((Attacks.knightAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()]) != 0) return true;
+        if((Attacks.kingAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()]) != 0) return true;
+        // A pawn of byColor attacks square exactly when a pawn of the other color on square would attack it back
+        if((Attacks.pawnAttacks(byColor ^ 1, square) & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()]) != 0) return true;
+
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        long diagonal = pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens;
+        long straight = pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens;
+        return (Attacks.bishopAttacks(square, occupancy) & diagonal) != 0
+                || (Attacks.rookAttacks(square, occupancy) & straight) != 0;
+    }
+
+    /**
+     * @return bitboard of every piece of byColor attacking square, given the blockers in occupancy
+     */
+    long attackersTo(int square, int byColor, long occupancy) {
+        int base = byColor * 6;
+        long queens = pieceBitboards[base + ChessPiece.PieceType.QUEEN.ordinal()];
+        return (Attacks.knightAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KNIGHT.ordinal()])
+                | (Attacks.kingAttacks(square) & pieceBitboards[base + ChessPiece.PieceType.KING.ordinal()])
+                | (Attacks.pawnAttacks(byColor ^ 1, square) & pieceBitboards[base + ChessPiece.PieceType.PAWN.ordinal()])
+                | (Attacks.bishopAttacks(square, occupancy) & (pieceBitboards[base + ChessPiece.PieceType.BISHOP.ordinal()] | queens))
+                | (Attacks.rookAttacks(square, occupancy) & (pieceBitboards[base + ChessPiece.PieceType.ROOK.ordinal()] | queens));
+    }
+
+    private void putPiece(int square, ChessPiece piece) {
+        int color = Bitboards.colorIndex(piece.getTeamColor());
+        int pieceIndex = Bitboards.pieceIndex(color, piece.getPieceType());
+        long bit = Bitboards.bit(square);
+        pieceBitboards[pieceIndex] |= bit;
+        zobristKey ^= Zobrist.piece(pieceIndex, square);
+        middlegameScore += PieceSquareTables.middlegame(pieceIndex, square);
+        endgameScore += PieceSquareTables.endgame(pieceIndex, square);
+        phase += PieceSquareTables.phase(pieceIndex);
+        colorOccupancy[color] |= bit;
+        squares[square] = piece;
+        if(piece.getPieceType() == ChessPiece.PieceType.KING) {
+            kingSquares[color] = square;
+        }
+        if(listener != null) {
+            listener.pieceAdded(piece, square);
+        }
+    }
+
+    private void removePiece(int square) {
+        ChessPiece piece = squares[square];
+        if(piece == null) return;
+
+        int color = Bitboards.colorIndex(piece.getTeamColor());
+        int pieceIndex = Bitboards.pieceIndex(color, piece.getPieceType());
+        long bit = Bitboards.bit(square);
+        pieceBitboards[pieceIndex] &= ~bit;
+        zobristKey ^= Zobrist.piece(pieceIndex, square);
+        middlegameScore -= PieceSquareTables.middlegame(pieceIndex, square);
+        endgameScore -= PieceSquareTables.endgame(pieceIndex, square);
+        phase -= PieceSquareTables.phase(pieceIndex);
+        colorOccupancy[color] &= ~bit;
+        squares[square] = null;
+        if(kingSquares[color] == square) {
+            // Fall back to any other king of this color (only possible on hand-built boards)
+            long kings = pieceBitboards[Bitboards.pieceIndex(color, ChessPiece.PieceType.KING)];
+            kingSquares[color] = (kings == 0) ? -1 : Long.numberOfTrailingZeros(kings);
+        }
+        if(listener != null) {
+            listener.pieceRemoved(piece, square);
+        }
     }
 
 
     private void addBackRow(int row, ChessGame.TeamColor teamColor) {
-        addPiece(new ChessPosition(row, 1), new ChessPiece(teamColor, ChessPiece.PieceType.ROOK));
-        addPiece(new ChessPosition(row, 2), new ChessPiece(teamColor, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(row, 3), new ChessPiece(teamColor, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(row, 4), new ChessPiece(teamColor, ChessPiece.PieceType.QUEEN));
-        addPiece(new ChessPosition(row, 5), new ChessPiece(teamColor, ChessPiece.PieceType.KING));
-        addPiece(new ChessPosition(row, 6), new ChessPiece(teamColor, ChessPiece.PieceType.BISHOP));
-        addPiece(new ChessPosition(row, 7), new ChessPiece(teamColor, ChessPiece.PieceType.KNIGHT));
-        addPiece(new ChessPosition(row, 8), new ChessPiece(teamColor, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(row, 1), ChessPiece.of(teamColor, ChessPiece.PieceType.ROOK));
+        addPiece(ChessPosition.of(row, 2), ChessPiece.of(teamColor, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(row, 3), ChessPiece.of(teamColor, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(row, 4), ChessPiece.of(teamColor, ChessPiece.PieceType.QUEEN));
+        addPiece(ChessPosition.of(row, 5), ChessPiece.of(teamColor, ChessPiece.PieceType.KING));
+        addPiece(ChessPosition.of(row, 6), ChessPiece.of(teamColor, ChessPiece.PieceType.BISHOP));
+        addPiece(ChessPosition.of(row, 7), ChessPiece.of(teamColor, ChessPiece.PieceType.KNIGHT));
+        addPiece(ChessPosition.of(row, 8), ChessPiece.of(teamColor, ChessPiece.PieceType.ROOK));
     }
 
     private void addPawns(int row, ChessGame.TeamColor teamColor) {
         for(int i = 1; i < 9; i++) {
-            addPiece(new ChessPosition(row, i), new ChessPiece(teamColor, ChessPiece.PieceType.PAWN));
+            addPiece(ChessPosition.of(row, i), ChessPiece.of(teamColor, ChessPiece.PieceType.PAWN));
         }
     }
 
@@ -60,7 +326,21 @@ public class ChessBoard {
      * (How the game of chess normally starts)
      */
     public void resetBoard() {
-        squares = new ChessPiece[8][8];
+        if(listener != null) {
+            // Report the old pieces leaving before the arrays are wiped
+            for(int square = 0; square < 64; square++) {
+                removePiece(square);
+            }
+        }
+        squares = new ChessPiece[64];
+        Arrays.fill(pieceBitboards, 0L);
+        Arrays.fill(colorOccupancy, 0L);
+        Arrays.fill(kingSquares, -1);
+        zobristKey = 0;
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        modificationCount++;
 
         addPawns(2, ChessGame.TeamColor.WHITE);
         addPawns(7, ChessGame.TeamColor.BLACK);
@@ -76,11 +356,11 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return Long.hashCode(zobristKey);
     }
 }
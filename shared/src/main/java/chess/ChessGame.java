@@ -1,8 +1,16 @@
 package chess;
 
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * For a class that can manage a chess game, making moves on a board
@@ -13,15 +21,64 @@ import java.util.Objects;
 public class ChessGame {
 
     private TeamColor teamTurn;
-    private ChessBoard board = new ChessBoard();
-
-    private ChessMove previousMove;
+    private ChessBoard board;
+
+    private int state = GameState.INITIAL;
+
+    // Undo stack: one entry per move made, reused as moves are undone and remade
+    private int historySize;
+    private int[] moveHistory = new int[256];
+    private int[] stateHistory = new int[256];
+    private ChessPiece[] capturedHistory = new ChessPiece[256];
+
+    // Per-team results for the current position, filled in on demand and
+    // dropped when the position changes or the board's modification count moves
+    private final GameStatus[] statusCache = new GameStatus[2];
+    private final MoveList[] moveCache = {new MoveList(), new MoveList()};
+    private final boolean[] moveCacheValid = new boolean[2];
+    // moveCacheStart[color][square] indexes the first cached move from that square; [64] is the end
+    private final int[][] moveCacheStart = new int[2][65];
+    private int cachedModificationCount = -1;
+    // Working space for getStatus's legal move search, so it allocates nothing
+    private final MoveList statusScratch = new MoveList(32);
 
     public ChessGame() {
         this.teamTurn = TeamColor.WHITE;
+        this.board = new ChessBoard();
         this.board.resetBoard();
     }
 
+    /**
+     * Creates a game in an exact position, as read back by a codec or FEN
+     * parser, without setting up and then replacing a starting board
+     *
+     * @param board    the board to use
+     * @param teamTurn the side to move
+     * @param state    castling, en passant and counters as a {@link GameState} word
+     */
+    ChessGame(ChessBoard board, TeamColor teamTurn, int state) {
+        this.teamTurn = teamTurn;
+        this.board = board;
+        this.state = state;
+    }
+
+    /**
+     * Creates an independent copy of another game. Pieces are immutable and
+     * the rest of the game state is a single int, so only the board's arrays
+     * are copied.
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this.teamTurn = other.teamTurn;
+        this.board = new ChessBoard(other.board);
+        this.state = other.state;
+        this.historySize = other.historySize;
+        this.moveHistory = other.moveHistory.clone();
+        this.stateHistory = other.stateHistory.clone();
+        this.capturedHistory = other.capturedHistory.clone();
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -35,9 +92,28 @@ public class ChessGame {
      * @param team the team whose turn it is
      */
     public void setTeamTurn(TeamColor team) {
+        if(team != teamTurn) {
+            // An en passant capture is only available as the immediate reply
+            state = GameState.withoutEnPassant(state);
+            invalidateCaches();
+        }
         teamTurn = team;
     }
 
+    /**
+     * @return moves since the last capture or pawn move, for the fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return GameState.halfmoveClock(state);
+    }
+
+    /**
+     * @return the current full move, starting at 1 and increasing after each Black move
+     */
+    public int getFullmoveNumber() {
+        return GameState.fullmoveNumber(state);
+    }
+
     /**
      * Enum identifying the 2 possible teams in a chess game
      */
@@ -46,6 +122,18 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Where a team stands in the current position
+     */
+    public enum GameStatus {
+        /** Not in check and has a legal move */
+        NORMAL,
+        /** In check with a legal move out of it */
+        CHECK,
+        CHECKMATE,
+        STALEMATE
+    }
+
     /**
      * Gets a valid moves for a piece at the given location
      *
@@ -55,30 +143,138 @@ public class ChessGame {
      */
     public Collection<ChessMove> validMoves(ChessPosition startPosition) {
         ChessPiece piece = board.getPiece(startPosition);
+        if(piece == null) return null;
+
+        int color = Bitboards.colorIndex(piece.getTeamColor());
+        int square = Bitboards.square(startPosition);
+        int[] start = cachedMoveStarts(color);
+        return moveCache[color].toChessMoves(start[square], start[square + 1]);
+    }
+
+    /**
+     * Gets the valid moves for a piece without allocating: the moves are
+     * appended to a caller-owned list as {@link PackedMove} ints, copied from
+     * the game's per-square move cache. Reusing one list across calls keeps
+     * the whole validation path free of garbage.
+     *
+     * @param startPosition the piece to get valid moves for
+     * @param moves         the list to append to; it is not cleared first
+     * @return the number of moves added, 0 if no piece is at startPosition
+     */
+    public int validMoves(ChessPosition startPosition, MoveList moves) {
+        ChessPiece piece = board.getPiece(startPosition);
+        if(piece == null) return 0;
 
-        Collection<ChessMove> testMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validatedMoves = new ArrayList<>();
+        int color = Bitboards.colorIndex(piece.getTeamColor());
+        int square = Bitboards.square(startPosition);
+        int[] start = cachedMoveStarts(color);
+        moves.addAll(moveCache[color], start[square], start[square + 1]);
+        return start[square + 1] - start[square];
+    }
 
-        if(piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            enPassant(startPosition, piece, testMoves);
-        } else if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-            castling(startPosition, piece, testMoves);
+    /**
+     * Generates every legal move of one team on first use and groups them by
+     * origin square; the generator visits pieces in square order, so each
+     * square's moves are already contiguous
+     *
+     * @return the team's start index table into {@code moveCache}
+     */
+    private int[] cachedMoveStarts(int color) {
+        checkCaches();
+        int[] start = moveCacheStart[color];
+        if(!moveCacheValid[color]) {
+            MoveList moves = moveCache[color];
+            moves.clear();
+            generateMoves(Bitboards.teamColor(color), ~0L, moves);
+
+            int index = 0;
+            for(int square = 0; square < 64; square++) {
+                start[square] = index;
+                while(index < moves.size() && PackedMove.from(moves.get(index)) == square) {
+                    index++;
+                }
+            }
+            start[64] = index;
+            moveCacheValid[color] = true;
         }
+        return start;
+    }
 
-        for(ChessMove move : testMoves) {
-            ChessPiece tmpTarget = board.getPiece(move.getEndPosition());
-            board.addPiece(move.getEndPosition(), piece);
-            board.addPiece(move.getStartPosition(), null);
+    /**
+     * Adds every legal move of the team whose turn it is to a caller-owned list,
+     * encoded as {@link PackedMove} ints. The list is not cleared first.
+     *
+     * @param moves the list to append to
+     * @return the number of moves added
+     */
+    public int legalMoves(MoveList moves) {
+        int before = moves.size();
+        generateMoves(teamTurn, ~0L, moves);
+        return moves.size() - before;
+    }
+
+    /**
+     * Streams the legal moves of the team whose turn it is, generating them
+     * one piece at a time as the stream is consumed. Short-circuiting
+     * operations such as {@code anyMatch} or {@code findFirst} stop after
+     * the first piece that yields a match, without generating the rest.
+     * <p>
+     * The stream must be consumed before the game changes; editing the board
+     * mid-stream throws {@link ConcurrentModificationException}.
+     *
+     * @return a lazy, ordered stream of legal moves
+     */
+    public Stream<ChessMove> legalMoves() {
+        return StreamSupport.stream(new LegalMoveSpliterator(), false);
+    }
+
+    /**
+     * Walks the moving team's pieces in square order and generates each
+     * piece's moves only when the previous piece's moves run out
+     */
+    private class LegalMoveSpliterator extends Spliterators.AbstractSpliterator<ChessMove> {
+
+        private final MoveList pieceMoves = new MoveList(32);
+        private TeamColor color;
+        private long remainingPieces;
+        private int expectedModificationCount;
+        private int next;
+        private boolean bound;
+
+        LegalMoveSpliterator() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+        }
 
-            if(!isInCheck(piece.getTeamColor())) {
-                validatedMoves.add(move);
+        @Override
+        public boolean tryAdvance(Consumer<? super ChessMove> action) {
+            if(!bound) {
+                // Bind to the position when traversal starts, not when the stream is built
+                color = teamTurn;
+                remainingPieces = board.occupancy(Bitboards.colorIndex(color));
+                expectedModificationCount = board.modificationCount();
+                bound = true;
             }
+            if(board.modificationCount() != expectedModificationCount) {
+                throw new ConcurrentModificationException("Board changed while streaming legal moves");
+            }
+
+            while(next == pieceMoves.size()) {
+                if(remainingPieces == 0) return false;
+                int square = Long.numberOfTrailingZeros(remainingPieces);
+                remainingPieces &= remainingPieces - 1;
 
-            board.addPiece(move.getStartPosition(), piece);
-            board.addPiece(move.getEndPosition(), tmpTarget);
+                pieceMoves.clear();
+                next = 0;
+                generateMoves(color, Bitboards.bit(square), pieceMoves);
+            }
+            action.accept(PackedMove.toChessMove(pieceMoves.get(next++)));
+            return true;
         }
+    }
 
-        return validatedMoves;
+    private void generateMoves(TeamColor teamColor, long fromMask, MoveList moves) {
+        int epSquare = (teamColor == teamTurn) ? enPassantSquare() : -1;
+        MoveGenerator.generate(board, Bitboards.colorIndex(teamColor), GameState.castlingRights(state), epSquare, fromMask, moves);
     }
 
     /**
@@ -96,53 +292,135 @@ public class ChessGame {
             throw new InvalidMoveException("Incorrect turn");
         }
 
-        Collection<ChessMove> legalMoves = validMoves(move.getStartPosition());
-        if((legalMoves == null) || !legalMoves.contains(move)) {
+        int packed = PackedMove.of(move);
+        int color = Bitboards.colorIndex(teamTurn);
+        int[] start = cachedMoveStarts(color);
+        int from = PackedMove.from(packed);
+        boolean legal = false;
+        for(int i = start[from]; i < start[from + 1]; i++) {
+            if(moveCache[color].get(i) == packed) {
+                legal = true;
+                break;
+            }
+        }
+        if(!legal) {
             throw new InvalidMoveException("Illegal move");
         }
 
-        if(piece.getPieceType() == ChessPiece.PieceType.PAWN) {
-            boolean moveDiagonal = move.getStartPosition().getColumn() != move.getEndPosition().getColumn();
-            boolean isDestEmpty = board.getPiece(move.getEndPosition()) == null;
+        makeMoveUnchecked(packed);
+    }
 
-            if(moveDiagonal && isDestEmpty) {
-                ChessPosition capturedPosition = new ChessPosition(move.getStartPosition().getRow(), move.getEndPosition().getColumn());
-                board.addPiece(capturedPosition, null);
-            }
+    /**
+     * Makes a move without checking that it is legal, recording what is
+     * needed to take it back with {@link #undoMove()}. Meant for search and
+     * analysis code that only plays moves it got from {@link #legalMoves}.
+     *
+     * @param move the move to make, encoded as a {@link PackedMove}
+     */
+    public void makeMoveUnchecked(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(from);
+        boolean isPawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+
+        int capturedSquare = to;
+        if(isPawn && to == enPassantSquare()) {
+            // The captured pawn sits beside the start square, not on the destination
+            capturedSquare = Bitboards.square(Bitboards.row(from), Bitboards.column(to));
         }
+        ChessPiece captured = board.getPiece(capturedSquare);
+        pushHistory(move, captured);
 
-        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-            int colDist = move.getEndPosition().getColumn() - move.getStartPosition().getColumn();
-            if (Math.abs(colDist) == 2) {
-                int row = move.getStartPosition().getRow();
-                int rookStartCol = (colDist == 2) ? 8 : 1;
-                int rookEndCol = (colDist == 2) ? 6 : 4;
+        if(captured != null) {
+            board.addPiece(capturedSquare, null);
+        }
 
-                ChessPiece rook = board.getPiece(new ChessPosition(row, rookStartCol));
+        if(piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            // Move the Rook to the other side of the King
+            int rookStart = (to > from) ? from + 3 : from - 4;
+            int rookEnd = (to > from) ? from + 1 : from - 1;
+            board.addPiece(rookEnd, board.getPiece(rookStart));
+            board.addPiece(rookStart, null);
+        }
 
-                // Move the Rook to the other side of the King
-                board.addPiece(new ChessPosition(row, rookEndCol), rook);
-                board.addPiece(new ChessPosition(row, rookStartCol), null);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        board.addPiece(from, null);
+        board.addPiece(to, (promotion == null) ? piece : ChessPiece.of(piece.getTeamColor(), promotion));
 
-                // MARK THE ROOK AS MOVED
-                if (rook != null) {
-                    rook.setMoveState(true);
-                }
-            }
-        }
+        int epColumn = (isPawn && Math.abs(to - from) == 16) ? Bitboards.column(to) : 0;
+        state = GameState.afterMove(state, from, to, isPawn || captured != null, epColumn, teamTurn == TeamColor.BLACK);
+        teamTurn = opponent(teamTurn);
+        invalidateCaches();
+    }
 
-        ChessPiece finalPiece = piece;
-        if(move.getPromotionPiece() != null) {
-            finalPiece = new ChessPiece(piece.getTeamColor(), move.getPromotionPiece());
+    /**
+     * Takes back the most recent move made with {@link #makeMove} or
+     * {@link #makeMoveUnchecked}, restoring the board, side to move, castling
+     * rights, en passant and move counters exactly.
+     *
+     * @throws IllegalStateException if no moves have been made since the board was set
+     */
+    public void undoMove() {
+        if(historySize == 0) {
+            throw new IllegalStateException("No move to undo");
+        }
+        historySize--;
+        int move = moveHistory[historySize];
+        ChessPiece captured = capturedHistory[historySize];
+        capturedHistory[historySize] = null;
+        state = stateHistory[historySize];
+        invalidateCaches();
+
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(to);
+        teamTurn = piece.getTeamColor();
+
+        ChessPiece original = (PackedMove.promotion(move) == null) ? piece : ChessPiece.of(teamTurn, ChessPiece.PieceType.PAWN);
+        board.addPiece(to, null);
+        board.addPiece(from, original);
+
+        if(piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs(to - from) == 2) {
+            int rookStart = (to > from) ? from + 3 : from - 4;
+            int rookEnd = (to > from) ? from + 1 : from - 1;
+            board.addPiece(rookStart, board.getPiece(rookEnd));
+            board.addPiece(rookEnd, null);
         }
 
-        board.addPiece(move.getEndPosition(), finalPiece);
-        board.addPiece(move.getStartPosition(), null);
+        if(captured != null) {
+            int capturedSquare = to;
+            if(original.getPieceType() == ChessPiece.PieceType.PAWN && to == enPassantSquare()) {
+                capturedSquare = Bitboards.square(Bitboards.row(from), Bitboards.column(to));
+            }
+            board.addPiece(capturedSquare, captured);
+        }
+    }
 
-        this.previousMove = move;
-        finalPiece.setMoveState(true);
+    /**
+     * Takes back the last move played, for a player-facing "undo"
+     *
+     * @return the move that was taken back
+     * @throws InvalidMoveException if there is no move to take back
+     */
+    public ChessMove takeBack() throws InvalidMoveException {
+        if(historySize == 0) {
+            throw new InvalidMoveException("No move to take back");
+        }
+        ChessMove move = PackedMove.toChessMove(moveHistory[historySize - 1]);
+        undoMove();
+        return move;
+    }
 
-        setTeamTurn(teamTurn == TeamColor.BLACK ? TeamColor.WHITE : TeamColor.BLACK);
+    private void pushHistory(int move, ChessPiece captured) {
+        if(historySize == moveHistory.length) {
+            moveHistory = Arrays.copyOf(moveHistory, historySize * 2);
+            stateHistory = Arrays.copyOf(stateHistory, historySize * 2);
+            capturedHistory = Arrays.copyOf(capturedHistory, historySize * 2);
+        }
+        moveHistory[historySize] = move;
+        stateHistory[historySize] = state;
+        capturedHistory[historySize] = captured;
+        historySize++;
     }
 
     /**
@@ -152,40 +430,65 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPiece king = null;
-        ChessPosition kingPos = null;
-        ChessPosition attackerPos;
-
-        outerLoop:
-        for(int i = 1; i < 9; i++) {
-            for(int j = 1; j < 9; j++) {
-                kingPos = new ChessPosition(i, j);
-                if(board.getPiece(kingPos) == null) continue;
-                if((board.getPiece(kingPos).getPieceType() == ChessPiece.PieceType.KING) && (board.getPiece(kingPos).getTeamColor() == teamColor)) {
-                    king = board.getPiece(kingPos);
-                    break outerLoop;
-                }
-            }
-        }
+        int color = Bitboards.colorIndex(teamColor);
+        int kingSquare = board.kingSquare(color);
+        if (kingSquare < 0) return false;
 
-        if (king == null) return false;
-
-        for(int i = 1; i < 9; i++) {
-            for(int j = 1; j < 9; j++) {
-                attackerPos = new ChessPosition(i, j);
-                ChessPiece attacker = board.getPiece(attackerPos);
-                if(attacker == null) continue;
-                if(attacker.getTeamColor() != teamColor) {
-                    for(ChessMove move : attacker.pieceMoves(board, attackerPos)) {
-                        if(move.getEndPosition().equals(kingPos)) {
-                            return true;
-                        }
-                    }
-                }
+        return board.isSquareAttacked(kingSquare, color ^ 1);
+    }
+
+    private static TeamColor opponent(TeamColor teamColor) {
+        return teamColor == TeamColor.WHITE ? TeamColor.BLACK : TeamColor.WHITE;
+    }
+
+    /**
+     * Works out whether a team is in check, checkmate or stalemate in one
+     * pass: the check test, then a legal move search that stops at the
+     * first move found. The result is kept until the position changes, so
+     * asking about check, checkmate and stalemate in a row costs one search.
+     *
+     * @param teamColor which team to evaluate
+     * @return that team's status in the current position
+     */
+    public GameStatus getStatus(TeamColor teamColor) {
+        checkCaches();
+        int color = Bitboards.colorIndex(teamColor);
+        GameStatus status = statusCache[color];
+        if(status == null) {
+            boolean inCheck = isInCheck(teamColor);
+            boolean canMove;
+            if(moveCacheValid[color]) {
+                canMove = moveCacheStart[color][64] > 0;
+            } else {
+                int epSquare = (teamColor == teamTurn) ? enPassantSquare() : -1;
+                canMove = MoveGenerator.hasLegalMove(board, color, GameState.castlingRights(state), epSquare, statusScratch);
+            }
+            if(canMove) {
+                status = inCheck ? GameStatus.CHECK : GameStatus.NORMAL;
+            } else {
+                status = inCheck ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
             }
+            statusCache[color] = status;
         }
+        return status;
+    }
+
+    private void invalidateCaches() {
+        statusCache[Bitboards.WHITE] = null;
+        statusCache[Bitboards.BLACK] = null;
+        moveCacheValid[Bitboards.WHITE] = false;
+        moveCacheValid[Bitboards.BLACK] = false;
+    }
 
-    return false;
+    /**
+     * Drops the cached results if the board was edited directly through
+     * {@link ChessBoard#addPiece} since they were computed
+     */
+    private void checkCaches() {
+        if(board.modificationCount() != cachedModificationCount) {
+            invalidateCaches();
+            cachedModificationCount = board.modificationCount();
+        }
     }
 
     /**
@@ -195,26 +498,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if(!isInCheck(teamColor)) {
-            return false;
-        }
-
-        ChessPosition position;
-
-        for(int i = 1; i < 9; i++) {
-            for(int j = 1; j < 9; j++) {
-                position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if(piece == null) continue;
-                if(piece.getTeamColor() == teamColor) {
-                    if(!validMoves(position).isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-
-        return true;
+        return getStatus(teamColor) == GameStatus.CHECKMATE;
     }
 
     /**
@@ -225,26 +509,7 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if(isInCheck(teamColor)) {
-            return false;
-        }
-
-        ChessPosition position;
-
-        for(int i = 1; i < 9; i++) {
-            for(int j = 1; j < 9; j++) {
-                position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-                if(piece == null) continue;
-                if(piece.getTeamColor() == teamColor) {
-                    if(!validMoves(position).isEmpty()) {
-                        return false;
-                    }
-                }
-            }
-        }
-
-        return true;
+        return getStatus(teamColor) == GameStatus.STALEMATE;
     }
 
     /**
@@ -254,80 +519,95 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.state = GameState.pack(GameState.castlingRightsFor(board), 0, 0, 1);
+        clearHistory();
+        invalidateCaches();
     }
 
     /**
-     * Gets the current chessboard
+     * Creates a game from a position in Forsyth-Edwards Notation. The halfmove
+     * clock and fullmove number may be omitted, and castling rights that the
+     * piece placement can't support are dropped.
      *
-     * @return the chessboard
+     * @param fen the position, e.g. {@code "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1"}
+     * @return a game set up in that position, with no move history
+     * @throws IllegalArgumentException if the text is not a valid FEN position, a side
+     *                                  does not have exactly one king, the en passant square
+     *                                  has no pawn that just advanced past it, or the halfmove
+     *                                  clock is above 255 or the fullmove number above 65535
      */
-    public ChessBoard getBoard() {
-        return this.board;
+    public static ChessGame fromFen(CharSequence fen) {
+        return Fen.parse(fen);
     }
 
-    private void enPassant(ChessPosition position, ChessPiece piece, Collection<ChessMove> validMoves) {
-
-        if(previousMove == null) return;
-
-        ChessPiece previousPiece = board.getPiece(previousMove.getEndPosition());
-        if((previousPiece == null) || (previousPiece.getPieceType() != ChessPiece.PieceType.PAWN)) return;
-        else if (Math.abs(previousMove.getStartPosition().getRow() - previousMove.getEndPosition().getRow()) != 2) return;
-
-        if(previousMove.getEndPosition().getRow() == position.getRow()) {
-            if(Math.abs(previousMove.getEndPosition().getColumn() - position.getColumn()) == 1) {
-                int moveToRow;
-                if(piece.getTeamColor() == TeamColor.WHITE) moveToRow = position.getRow() + 1;
-                else moveToRow = position.getRow() - 1;
-                validMoves.add(new ChessMove(position, new ChessPosition(moveToRow, previousMove.getEndPosition().getColumn()), null));
-            }
-        }
+    /**
+     * Writes this game's position in Forsyth-Edwards Notation
+     *
+     * @param out where to write it
+     * @throws IOException if out does
+     */
+    public void toFen(Appendable out) throws IOException {
+        Fen.write(this, out);
     }
 
-    private void castling(ChessPosition position, ChessPiece king, Collection<ChessMove> validMoves) {
-
-        if(isInCheck(king.getTeamColor())) return;
-
-        int row;
-        if(king.getTeamColor() == TeamColor.WHITE) row = 1;
-        else row = 8;
-
-        if(canCastle(row, 8, new int[]{6, 7}, king.getTeamColor())) {
-            validMoves.add(new ChessMove(position, new ChessPosition(row, 7), null));
-        }
-        if(canCastle(row, 1, new int[]{2, 3, 4}, king.getTeamColor())) {
-            validMoves.add(new ChessMove(position, new ChessPosition(row, 3), null));
+    /**
+     * @return this game's position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        StringBuilder fen = new StringBuilder(90);
+        try {
+            Fen.write(this, fen);
+        } catch(IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
         }
+        return fen.toString();
     }
 
-    private boolean canCastle(int row, int col, int[] pathColumns, TeamColor teamColor) {
-        ChessPiece rook = board.getPiece(new ChessPosition(row, col));
-        ChessPiece king = board.getPiece(new ChessPosition(row, 5));
-
-        if((king == null) || (rook == null) || (king.getMoveState()) || rook.getMoveState()) return false;
-
-        for(int column : pathColumns) {
-            if(board.getPiece(new ChessPosition(row, column)) != null) return false;
-        }
-
-        ChessPosition startingPosKing = new ChessPosition(row, 5);
-        int[] checkSquares;
-        if(col == 8) checkSquares = new int[]{6, 7};
-        else checkSquares = new int[]{4, 3};
+    /**
+     * @return castling, en passant and counters as a {@link GameState} word
+     */
+    int state() {
+        return state;
+    }
 
-        for (int column : checkSquares) {
-            ChessPosition tempPos = new ChessPosition(row, column);
-            board.addPiece(tempPos, king);
-            board.addPiece(startingPosKing, null);
+    private void clearHistory() {
+        Arrays.fill(capturedHistory, 0, historySize, null);
+        historySize = 0;
+    }
 
-            boolean badMove = isInCheck(teamColor);
+    /**
+     * Gets the current chessboard
+     *
+     * @return the chessboard
+     */
+    public ChessBoard getBoard() {
+        return this.board;
+    }
 
-            board.addPiece(startingPosKing, king);
-            board.addPiece(tempPos, null);
+    /**
+     * Gets the Zobrist hash of this position: the board's piece key combined
+     * with the side to move, castling rights and en passant column. Every
+     * part is maintained incrementally, so this costs a few XORs.
+     *
+     * @return 64-bit hash identifying the position
+     */
+    public long getZobristKey() {
+        long key = board.getZobristKey() ^ Zobrist.state(state);
+        return (teamTurn == TeamColor.BLACK) ? key ^ Zobrist.blackToMove() : key;
+    }
 
-            if(badMove) return false;
-        }
+    /**
+     * @return the square the side to move could capture onto en passant, or -1
+     * if the last move was not a two-square pawn advance
+     */
+    private int enPassantSquare() {
+        int column = GameState.enPassantColumn(state);
+        if(column == 0) return -1;
 
-        return true;
+        // The pawn skipped over row 6 if Black made the advance, row 3 if White did
+        int skippedRow = (teamTurn == TeamColor.WHITE) ? 6 : 3;
+        return Bitboards.square(skippedRow, column);
     }
 
     @Override
@@ -336,11 +616,14 @@ public class ChessGame {
             return false;
         }
         ChessGame chessGame = (ChessGame) o;
-        return teamTurn == chessGame.teamTurn && Objects.equals(board, chessGame.board);
+        return teamTurn == chessGame.teamTurn
+                && GameState.castlingRights(state) == GameState.castlingRights(chessGame.state)
+                && GameState.enPassantColumn(state) == GameState.enPassantColumn(chessGame.state)
+                && Objects.equals(board, chessGame.board);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return Long.hashCode(getZobristKey());
     }
 }
@@ -1,6 +1,5 @@
 package chess;
 
-import java.lang.reflect.Array;
 import java.util.*;
 
 /**
@@ -11,9 +10,18 @@ import java.util.*;
  */
 public class ChessPiece {
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for(PieceType type : PieceType.values()) {
+                PIECES[Bitboards.pieceIndex(Bitboards.colorIndex(color), type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final ChessGame.TeamColor pieceColor;
     private final PieceType type;
-    private boolean hasMoved = false;
 
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
@@ -21,12 +29,38 @@ public class ChessPiece {
         this.type = type;
     }
 
+    /**
+     * Pieces are immutable, so one shared instance per color and type serves
+     * every board
+     *
+     * @return the cached piece of this color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
+        return PIECES[Bitboards.pieceIndex(Bitboards.colorIndex(pieceColor), type)];
+    }
+
+    /**
+     * @deprecated castling rights are kept in the game state, so pieces no
+     * longer track whether they have moved
+     * @return always false
+     */
+    @Deprecated
     public boolean getMoveState() {
-        return hasMoved;
+        return false;
     }
 
+    /**
+     * @deprecated castling rights are kept in the game state; this does nothing
+     */
+    @Deprecated
     public void setMoveState(boolean moveState) {
-        hasMoved = moveState;
+    }
+
+    /**
+     * @return the cached piece stored in bitboard slot pieceIndex (0-11)
+     */
+    static ChessPiece of(int pieceIndex) {
+        return PIECES[pieceIndex];
     }
 
     /**
@@ -55,65 +89,63 @@ public class ChessPiece {
         return type;
     }
     
-    private boolean isOnBoard(int row, int col) {
-        return (row>=1 && row<=8 && col>=1 && col<=8);
-    }
+    /**
+     * Turns a bitboard of destination squares into moves, skipping squares
+     * held by the moving piece's own team
+     */
+    private ArrayList<ChessMove> targetMoves(ChessBoard board, ChessPiece piece, ChessPosition moveFrom, long targets) {
+        ArrayList<ChessMove> validMoves = new ArrayList<>();
+        targets &= ~board.occupancy(Bitboards.colorIndex(piece.getTeamColor()));
 
-    private boolean canCapture(ChessBoard board, ChessPiece piece, ChessPosition moveTo) {
-        ChessPiece target = board.getPiece(moveTo);
+        while(targets != 0) {
+            int square = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            validMoves.add(new ChessMove(moveFrom, Bitboards.position(square), null));
+        }
 
-        return (target.getTeamColor() != piece.getTeamColor());
+        return validMoves;
     }
 
-    private ArrayList<ChessMove> slidingMoves(ChessBoard board, ChessPiece piece, ChessPosition moveFrom, int[][] dirArray) {
-        ArrayList<ChessMove> validMoves = new ArrayList<>();
-        for(int[] dir : dirArray) {
-            int row = moveFrom.getRow();
-            int col = moveFrom.getColumn();
-
-            while(true) {
-                row+=dir[0];
-                col+=dir[1];
-
-                if(!isOnBoard(row, col)) {
-                    break;
-                } else {
-                    ChessPosition moveTo = new ChessPosition(row, col);
-                    if(board.getPiece(moveTo) == null) {
-                        ChessMove validMove = new ChessMove(moveFrom, moveTo, null);
-                        validMoves.add(validMove);
-                    } else if (canCapture(board, piece, moveTo)) {
-                        ChessMove validMove = new ChessMove(moveFrom, moveTo, null);
-                        validMoves.add(validMove);
-                        break;
-                    } else {
-                        break;
-                    }
-                }
+    private void addPawnMove(Collection<ChessMove> validMoves, ChessPosition moveFrom, int toSquare) {
+        ChessPosition moveTo = Bitboards.position(toSquare);
+        int row = moveTo.getRow();
+
+        if(row == 1 || row == 8) { // Pawn should be promoted
+            for(PieceType type : PieceType.values()) {
+                if(type == PieceType.PAWN || type == PieceType.KING) continue;
+                validMoves.add(new ChessMove(moveFrom, moveTo, type));
             }
+        } else {
+            validMoves.add(new ChessMove(moveFrom, moveTo, null));
         }
-
-        return validMoves;
     }
 
-    private ArrayList<ChessMove> steppingMoves(ChessBoard board, ChessPiece piece, ChessPosition moveFrom, int[][] dirArray) {
+    private ArrayList<ChessMove> pawnMoves(ChessBoard board, ChessPiece piece, ChessPosition moveFrom) {
         ArrayList<ChessMove> validMoves = new ArrayList<>();
-
-        for(int[] dir : dirArray) {
-            int row = moveFrom.getRow() + dir[0];
-            int col = moveFrom.getColumn() + dir[1];
-
-            if(!isOnBoard(row,col)) {
-                continue;
-            } else {
-                ChessPosition moveTo = new ChessPosition(row, col);
-                if ((board.getPiece(moveTo) == null) || (canCapture(board, piece, moveTo))) {
-                    ChessMove validMove = new ChessMove(moveFrom, moveTo, null);
-                    validMoves.add(validMove);
-                }
+        int color = Bitboards.colorIndex(piece.getTeamColor());
+        int square = Bitboards.square(moveFrom);
+        long occupancy = board.occupancy();
+
+        int pawnStep = (color == Bitboards.WHITE) ? 8 : -8;
+        int doubleMoveRow = (color == Bitboards.WHITE) ? 2 : 7;
+
+        // Check if move is on board and if space is open
+        int oneStep = square + pawnStep;
+        if(oneStep >= 0 && oneStep < 64 && (occupancy & Bitboards.bit(oneStep)) == 0) {
+            addPawnMove(validMoves, moveFrom, oneStep);
+            int twoStep = oneStep + pawnStep;
+            if(moveFrom.getRow() == doubleMoveRow && (occupancy & Bitboards.bit(twoStep)) == 0) {
+                addPawnMove(validMoves, moveFrom, twoStep);
             }
         }
 
+        // Checking diagonals for capturable pieces
+        long captures = Attacks.pawnAttacks(color, square) & board.occupancy(color ^ 1);
+        while(captures != 0) {
+            addPawnMove(validMoves, moveFrom, Long.numberOfTrailingZeros(captures));
+            captures &= captures - 1;
+        }
+
         return validMoves;
     }
 
@@ -126,113 +158,17 @@ public class ChessPiece {
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         ChessPiece piece = board.getPiece(myPosition);
-        ArrayList<ChessMove> validMoves = new ArrayList<>();
-        ChessPosition moveToPos;
-
-        int startRow = myPosition.getRow();
-        int startCol = myPosition.getColumn();
-
-        int[][] bishopDirs = {{1,1}, {1,-1}, {-1,1}, {-1,-1}};
-        int[][] queenDirs = {{1,0}, {0,1}, {1,1}, {-1,0}, {0,-1}, {-1,-1}, {-1,1}, {1,-1}};
-        int[][] rookDirs = {{1,0}, {0,1}, {-1,0}, {0,-1}};
-        int[][] kingDirs = {{1,0}, {1,1}, {0,1}, {-1,0}, {-1,-1}, {0,-1}, {-1,1}, {1,-1}};
-        int[][] knightDirs = {{2,1}, {-2,1}, {2,-1}, {-2,-1}, {1,2}, {-1,2}, {1,-2}, {-1,-2}};
-
-        int pawnDir;
-        int promotionRow;
-        int doubleMoveRow;
-        if(piece.getTeamColor() == ChessGame.TeamColor.WHITE) {
-            pawnDir = 1;
-            promotionRow = 8;
-            doubleMoveRow = 2;
-        } else {
-            pawnDir = -1;
-            promotionRow = 1;
-            doubleMoveRow = 7;
-        }
-
-        /*----------     Bishop     ----------*/
-        if(piece.getPieceType() == PieceType.BISHOP) {
-
-            return slidingMoves(board, piece, myPosition, bishopDirs);
-
-        }
-        /*----------     KING     ----------*/
-        else if (piece.getPieceType() == PieceType.KING) {
-
-            return steppingMoves(board, piece, myPosition, kingDirs);
-
-        }
-        /*----------     KNIGHT     ----------*/
-        else if (piece.getPieceType() == PieceType.KNIGHT) {
-
-            return steppingMoves(board, piece, myPosition, knightDirs);
-
-        }
-        /*----------     PAWN     ----------*/
-        else if (piece.getPieceType() == PieceType.PAWN) {
-            // Check if move is on board and if space is open
-            if((isOnBoard(startRow + pawnDir, startCol)) && (board.getPiece(new ChessPosition(startRow + pawnDir, startCol)) == null)) {
-                moveToPos = new ChessPosition(startRow + pawnDir, startCol);
-                if (startRow+pawnDir == promotionRow) { // Pawn should be promoted
-                    for(PieceType type : PieceType.values()) {
-                        if(type == PieceType.PAWN || type == PieceType.KING) continue;
-                        validMoves.add(new ChessMove(myPosition, moveToPos, type));
-                    }
-                } else { // Normal moves
-                    validMoves.add(new ChessMove(myPosition, moveToPos, null));
-                    if(startRow == doubleMoveRow) {
-                        moveToPos = new ChessPosition(startRow + pawnDir + pawnDir, startCol);
-                        if(isOnBoard(startRow + pawnDir + pawnDir, startCol) && (board.getPiece(new ChessPosition(startRow + pawnDir + pawnDir, startCol)) == null)) {
-                            validMoves.add(new ChessMove(myPosition, moveToPos, null));
-                        }
-                    }
-                }
-            }
-            // Checking sides for capturable pieces
-            if(isOnBoard(startRow + pawnDir, startCol + 1) && (board.getPiece(new ChessPosition(startRow + pawnDir, startCol + 1)) != null)) {
-                moveToPos = new ChessPosition(startRow + pawnDir, startCol + 1);
-                if(canCapture(board, piece, moveToPos)) {
-                    if(startRow + pawnDir == promotionRow) {
-                        for(PieceType type : PieceType.values()) {
-                            if(type == PieceType.PAWN || type == PieceType.KING) continue;
-                            validMoves.add(new ChessMove(myPosition, moveToPos, type));
-                        }
-                    } else {
-                        validMoves.add(new ChessMove(myPosition, moveToPos, null));
-                    }
-                }
-            }
-            if(isOnBoard(startRow + pawnDir, startCol - 1) && (board.getPiece(new ChessPosition(startRow + pawnDir, startCol - 1)) != null)) {
-                moveToPos = new ChessPosition(startRow + pawnDir, startCol - 1);
-                if(canCapture(board, piece, moveToPos)) {
-                    if(startRow + pawnDir == promotionRow) {
-                        for(PieceType type : PieceType.values()) {
-                            if(type == PieceType.PAWN || type == PieceType.KING) continue;
-                            validMoves.add(new ChessMove(myPosition, moveToPos, type));
-                        }
-                    } else {
-                        validMoves.add(new ChessMove(myPosition, moveToPos, null));
-                    }
-                }
-            }
-
-
-            return validMoves;
-        }
-        /*----------     QUEEN     ----------*/
-        else if (piece.getPieceType() == PieceType.QUEEN) {
-
-            return slidingMoves(board, piece,myPosition, queenDirs);
-
-        }
-        /*----------     ROOK     ----------*/
-        else if (piece.getPieceType() == PieceType.ROOK) {
-
-            return slidingMoves(board, piece, myPosition, rookDirs);
-        }
-
-        return List.of();
+        int square = Bitboards.square(myPosition);
+        long occupancy = board.occupancy();
+
+        return switch(piece.getPieceType()) {
+            case BISHOP -> targetMoves(board, piece, myPosition, Attacks.bishopAttacks(square, occupancy));
+            case KING -> targetMoves(board, piece, myPosition, Attacks.kingAttacks(square));
+            case KNIGHT -> targetMoves(board, piece, myPosition, Attacks.knightAttacks(square));
+            case PAWN -> pawnMoves(board, piece, myPosition);
+            case QUEEN -> targetMoves(board, piece, myPosition, Attacks.queenAttacks(square, occupancy));
+            case ROOK -> targetMoves(board, piece, myPosition, Attacks.rookAttacks(square, occupancy));
+        };
     }
 
     @Override
@@ -246,7 +182,8 @@ public class ChessPiece {
 
     @Override
     public int hashCode() {
-        return Objects.hash(pieceColor, type);
+        // Same value as Objects.hash(pieceColor, type), without the varargs array
+        return 31 * (31 + Objects.hashCode(pieceColor)) + Objects.hashCode(type);
     }
 
 }
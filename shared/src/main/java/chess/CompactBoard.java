@@ -0,0 +1,74 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A memory-dense board for keeping many idle games resident: one byte per
+ * square instead of {@link ChessBoard}'s bitboards, mailbox and Zobrist key.
+ * <p>
+ * Each byte holds a piece code, 0 for an empty square or the piece's
+ * bitboard index plus one (1-6 White king, queen, bishop, knight, rook,
+ * pawn; 7-12 the same for Black). Squares use the same a1 = 0 numbering as
+ * the bitboards. Convert to a {@link ChessBoard} to generate moves.
+ */
+public final class CompactBoard {
+
+    static final int EMPTY = 0;
+
+    private final byte[] squares = new byte[64];
+
+    public CompactBoard() {
+    }
+
+    /**
+     * @param board the board to compress
+     */
+    public CompactBoard(ChessBoard board) {
+        for(int square = 0; square < 64; square++) {
+            squares[square] = (byte) code(board.getPiece(square));
+        }
+    }
+
+    /**
+     * @return a full board holding the same pieces
+     */
+    public ChessBoard toChessBoard() {
+        ChessBoard board = new ChessBoard();
+        for(int square = 0; square < 64; square++) {
+            if(squares[square] != EMPTY) {
+                board.addPiece(square, piece(squares[square]));
+            }
+        }
+        return board;
+    }
+
+    public ChessPiece getPiece(ChessPosition position) {
+        return piece(squares[Bitboards.square(position)]);
+    }
+
+    public void addPiece(ChessPosition position, ChessPiece piece) {
+        squares[Bitboards.square(position)] = (byte) code(piece);
+    }
+
+    static int code(ChessPiece piece) {
+        if(piece == null) return EMPTY;
+        return Bitboards.pieceIndex(Bitboards.colorIndex(piece.getTeamColor()), piece.getPieceType()) + 1;
+    }
+
+    static ChessPiece piece(int code) {
+        return (code == EMPTY) ? null : ChessPiece.of(code - 1);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(squares, ((CompactBoard) o).squares);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(squares);
+    }
+}
@@ -0,0 +1,261 @@
+package chess;
+
+import java.io.IOException;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the one-line text form of a
+ * position: piece placement, side to move, castling rights, en passant
+ * square, halfmove clock and fullmove number, separated by spaces. The two
+ * counters may be left off when reading.
+ * <p>
+ * Parsing walks the characters once with an index; no regular expressions,
+ * splitting or intermediate strings are involved.
+ */
+final class Fen {
+
+    private final CharSequence text;
+    private int index;
+
+    private Fen(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the text is not a valid FEN position, a side
+     *                                  does not have exactly one king, or a counter is too large
+     */
+    static ChessGame parse(CharSequence text) {
+        return new Fen(text).readGame();
+    }
+
+    private ChessGame readGame() {
+        skipSpaces();
+        ChessBoard board = readPlacement();
+        expectSpace();
+        ChessGame.TeamColor turn = switch(next()) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw error("Side to move must be 'w' or 'b'");
+        };
+        expectSpace();
+        // Rights the placement can't support (king or rook off its square) are dropped
+        int castling = readCastling() & GameState.castlingRightsFor(board);
+        expectSpace();
+        int epColumn = readEnPassant(turn);
+        if(epColumn != 0 && !GameState.isEnPassantPossible(board, turn, epColumn)) {
+            throw error("En passant square has no pawn that just advanced two squares behind it");
+        }
+
+        int halfmove = 0;
+        int fullmove = 1;
+        skipSpaces();
+        if(index < text.length()) {
+            halfmove = readNumber("Halfmove clock", GameState.MAX_HALFMOVE_CLOCK);
+            expectSpace();
+            fullmove = Math.max(readNumber("Fullmove number", GameState.MAX_FULLMOVE_NUMBER), 1);
+        }
+        skipSpaces();
+        if(index < text.length()) {
+            throw error("Unexpected text after the fullmove number");
+        }
+
+        return new ChessGame(board, turn, GameState.pack(castling, epColumn, halfmove, fullmove));
+    }
+
+    private ChessBoard readPlacement() {
+        ChessBoard board = new ChessBoard();
+        for(int row = 8; row >= 1; row--) {
+            if(row < 8 && next() != '/') {
+                throw error("Expected '/' after row " + (row + 1));
+            }
+            int col = 1;
+            while(col <= 8) {
+                char c = next();
+                if(c >= '1' && c <= '8') {
+                    col += c - '0';
+                } else {
+                    board.addPiece(Bitboards.square(row, col), piece(c));
+                    col++;
+                }
+            }
+            if(col != 9) {
+                throw error("Row " + row + " does not have 8 squares");
+            }
+        }
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            if(Long.bitCount(board.pieces(Bitboards.colorIndex(color), ChessPiece.PieceType.KING)) != 1) {
+                throw error(color + " must have exactly one king");
+            }
+        }
+        return board;
+    }
+
+    private int readCastling() {
+        if(peek() == '-') {
+            index++;
+            return 0;
+        }
+        int rights = 0;
+        while(index < text.length() && text.charAt(index) != ' ') {
+            rights |= switch(next()) {
+                case 'K' -> GameState.WHITE_KINGSIDE;
+                case 'Q' -> GameState.WHITE_QUEENSIDE;
+                case 'k' -> GameState.BLACK_KINGSIDE;
+                case 'q' -> GameState.BLACK_QUEENSIDE;
+                default -> throw error("Castling rights must be '-' or some of 'KQkq'");
+            };
+        }
+        return rights;
+    }
+
+    /**
+     * @return the en passant column, 0 for '-'
+     */
+    private int readEnPassant(ChessGame.TeamColor turn) {
+        char file = next();
+        if(file == '-') return 0;
+        char rank = next();
+        char expectedRank = (turn == ChessGame.TeamColor.WHITE) ? '6' : '3';
+        if(file < 'a' || file > 'h' || rank != expectedRank) {
+            throw error("En passant square must be '-' or a square on rank " + expectedRank);
+        }
+        return file - 'a' + 1;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the number is larger than the game can store
+     */
+    private int readNumber(String name, int max) {
+        int start = index;
+        int value = 0;
+        while(index < text.length() && Character.isDigit(text.charAt(index))) {
+            value = value * 10 + (text.charAt(index++) - '0');
+            if(value > max) {
+                throw error(name + " must be at most " + max);
+            }
+        }
+        if(index == start) {
+            throw error("Expected a number");
+        }
+        return value;
+    }
+
+    private static ChessPiece piece(char c) {
+        ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        ChessPiece.PieceType type = switch(Character.toLowerCase(c)) {
+            case 'k' -> ChessPiece.PieceType.KING;
+            case 'q' -> ChessPiece.PieceType.QUEEN;
+            case 'r' -> ChessPiece.PieceType.ROOK;
+            case 'b' -> ChessPiece.PieceType.BISHOP;
+            case 'n' -> ChessPiece.PieceType.KNIGHT;
+            case 'p' -> ChessPiece.PieceType.PAWN;
+            default -> null;
+        };
+        if(type == null) {
+            throw new IllegalArgumentException("Unknown piece '" + c + "' in FEN");
+        }
+        return ChessPiece.of(color, type);
+    }
+
+    private char next() {
+        if(index >= text.length()) {
+            throw error("Unexpected end of FEN");
+        }
+        return text.charAt(index++);
+    }
+
+    private char peek() {
+        return (index < text.length()) ? text.charAt(index) : 0;
+    }
+
+    private void expectSpace() {
+        if(peek() != ' ') {
+            throw error("Expected a space");
+        }
+        skipSpaces();
+    }
+
+    private void skipSpaces() {
+        while(index < text.length() && Character.isWhitespace(text.charAt(index))) {
+            index++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at index " + index + " of FEN \"" + text + "\"");
+    }
+
+    /**
+     * Writes a game's position as FEN
+     */
+    static void write(ChessGame game, Appendable out) throws IOException {
+        ChessBoard board = game.getBoard();
+        for(int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for(int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(Bitboards.square(row, col));
+                if(piece == null) {
+                    empty++;
+                    continue;
+                }
+                if(empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(symbol(piece));
+            }
+            if(empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if(row > 1) {
+                out.append('/');
+            }
+        }
+
+        int state = game.state();
+        boolean whiteToMove = game.getTeamTurn() == ChessGame.TeamColor.WHITE;
+        out.append(whiteToMove ? " w " : " b ");
+
+        int castling = GameState.castlingRights(state);
+        if(castling == 0) {
+            out.append('-');
+        } else {
+            if((castling & GameState.WHITE_KINGSIDE) != 0) out.append('K');
+            if((castling & GameState.WHITE_QUEENSIDE) != 0) out.append('Q');
+            if((castling & GameState.BLACK_KINGSIDE) != 0) out.append('k');
+            if((castling & GameState.BLACK_QUEENSIDE) != 0) out.append('q');
+        }
+
+        int epColumn = GameState.enPassantColumn(state);
+        out.append(' ');
+        if(epColumn == 0) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + epColumn - 1)).append(whiteToMove ? '6' : '3');
+        }
+
+        out.append(' ');
+        appendNumber(out, GameState.halfmoveClock(state));
+        out.append(' ');
+        appendNumber(out, GameState.fullmoveNumber(state));
+    }
+
+    private static void appendNumber(Appendable out, int value) throws IOException {
+        if(value >= 10) {
+            appendNumber(out, value / 10);
+        }
+        out.append((char) ('0' + value % 10));
+    }
+
+    private static char symbol(ChessPiece piece) {
+        char c = switch(piece.getPieceType()) {
+            case KING -> 'k';
+            case QUEEN -> 'q';
+            case ROOK -> 'r';
+            case BISHOP -> 'b';
+            case KNIGHT -> 'n';
+            case PAWN -> 'p';
+        };
+        return (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? Character.toUpperCase(c) : c;
+    }
+}
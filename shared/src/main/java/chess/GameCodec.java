@@ -0,0 +1,117 @@
+package chess;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Reads and writes a {@link ChessGame} in a compact, versioned binary form.
+ * <p>
+ * Version 1 layout, {@value #ENCODED_SIZE} bytes:
+ * <pre>
+ * byte 0      format version
+ * byte 1      flags: bit 0 set when Black is to move
+ * bytes 2-33  board, one nibble per square in a1..h8 order, low nibble first,
+ *             holding the {@link CompactBoard} piece code
+ * bytes 34-37 castling rights, en passant column and move counters as a
+ *             big-endian {@link GameState} word
+ * </pre>
+ * Encoding and decoding work directly on the caller's buffer at its current
+ * position, so the same code serves heap arrays, direct buffers and
+ * slices of larger frames. Undo history is not part of the format.
+ */
+public final class GameCodec {
+
+    public static final int VERSION = 1;
+    public static final int ENCODED_SIZE = 38;
+
+    private static final int BLACK_TO_MOVE = 1;
+
+    private GameCodec() {
+    }
+
+    /**
+     * Writes a game at the buffer's position and advances it by {@link #ENCODED_SIZE}
+     *
+     * @throws BufferOverflowException if fewer than {@link #ENCODED_SIZE} bytes remain
+     */
+    public static void encode(ChessGame game, ByteBuffer buffer) {
+        if(buffer.remaining() < ENCODED_SIZE) {
+            throw new BufferOverflowException();
+        }
+        ChessBoard board = game.getBoard();
+        buffer.put((byte) VERSION);
+        buffer.put((byte) (game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0));
+        for(int square = 0; square < 64; square += 2) {
+            int low = CompactBoard.code(board.getPiece(square));
+            int high = CompactBoard.code(board.getPiece(square + 1));
+            buffer.put((byte) (low | (high << 4)));
+        }
+        int state = game.state();
+        buffer.put((byte) (state >>> 24));
+        buffer.put((byte) (state >>> 16));
+        buffer.put((byte) (state >>> 8));
+        buffer.put((byte) state);
+    }
+
+    /**
+     * @return the game in its encoded form
+     */
+    public static byte[] encode(ChessGame game) {
+        byte[] bytes = new byte[ENCODED_SIZE];
+        encode(game, ByteBuffer.wrap(bytes));
+        return bytes;
+    }
+
+    /**
+     * Reads a game at the buffer's position and advances it by {@link #ENCODED_SIZE}
+     *
+     * Castling rights the piece placement can't support are dropped, as when
+     * reading FEN.
+     *
+     * @throws IllegalArgumentException if the data has an unknown version or piece code, or an
+     *                                  en passant column the board can't support
+     * @throws BufferUnderflowException if fewer than {@link #ENCODED_SIZE} bytes remain
+     */
+    public static ChessGame decode(ByteBuffer buffer) {
+        if(buffer.remaining() < ENCODED_SIZE) {
+            throw new BufferUnderflowException();
+        }
+        int version = buffer.get() & 0xFF;
+        if(version != VERSION) {
+            throw new IllegalArgumentException("Unsupported game format version " + version);
+        }
+        int flags = buffer.get();
+
+        ChessBoard board = new ChessBoard();
+        for(int square = 0; square < 64; square += 2) {
+            int packed = buffer.get();
+            addPiece(board, square, packed & 0xF);
+            addPiece(board, square + 1, (packed >>> 4) & 0xF);
+        }
+        int state = ((buffer.get() & 0xFF) << 24) | ((buffer.get() & 0xFF) << 16)
+                | ((buffer.get() & 0xFF) << 8) | (buffer.get() & 0xFF);
+
+        ChessGame.TeamColor turn = ((flags & BLACK_TO_MOVE) != 0) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        int epColumn = GameState.enPassantColumn(state);
+        if(epColumn != 0 && !GameState.isEnPassantPossible(board, turn, epColumn)) {
+            throw new IllegalArgumentException("No en passant capture possible on column " + epColumn);
+        }
+        int castling = GameState.castlingRights(state) & GameState.castlingRightsFor(board);
+        return new ChessGame(board, turn, GameState.pack(castling, epColumn,
+                GameState.halfmoveClock(state), GameState.fullmoveNumber(state)));
+    }
+
+    public static ChessGame decode(byte[] bytes) {
+        return decode(ByteBuffer.wrap(bytes));
+    }
+
+    private static void addPiece(ChessBoard board, int square, int code) {
+        if(code > 12) {
+            throw new IllegalArgumentException("Invalid piece code " + code + " on square " + square);
+        }
+        if(code != CompactBoard.EMPTY) {
+            board.addPiece(square, CompactBoard.piece(code));
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Packs the parts of a game's state that aren't visible on the board into
+ * a single int.
+ * <p>
+ * Bits 0-3 hold the four castling rights, bits 4-7 the column of a pawn
+ * that just advanced two squares (0 when en passant isn't possible),
+ * bits 8-15 the halfmove clock (moves since the last capture or pawn
+ * move) and bits 16-31 the fullmove number.
+ */
+final class GameState {
+
+    static final int WHITE_KINGSIDE = 1;
+    static final int WHITE_QUEENSIDE = 2;
+    static final int BLACK_KINGSIDE = 4;
+    static final int BLACK_QUEENSIDE = 8;
+    static final int ALL_CASTLING = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+    /**
+     * A new game: every castling right, no en passant, move 1
+     */
+    static final int INITIAL = pack(ALL_CASTLING, 0, 0, 1);
+
+    static final int MAX_HALFMOVE_CLOCK = 0xFF;
+    static final int MAX_FULLMOVE_NUMBER = 0xFFFF;
+
+    /**
+     * Rights that survive a move touching each square; moving a king or rook
+     * off its home square, or capturing a rook there, clears the matching rights
+     */
+    private static final int[] CASTLING_MASK = new int[64];
+
+    static {
+        Arrays.fill(CASTLING_MASK, ALL_CASTLING);
+        CASTLING_MASK[Bitboards.square(1, 5)] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        CASTLING_MASK[Bitboards.square(1, 8)] &= ~WHITE_KINGSIDE;
+        CASTLING_MASK[Bitboards.square(1, 1)] &= ~WHITE_QUEENSIDE;
+        CASTLING_MASK[Bitboards.square(8, 5)] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        CASTLING_MASK[Bitboards.square(8, 8)] &= ~BLACK_KINGSIDE;
+        CASTLING_MASK[Bitboards.square(8, 1)] &= ~BLACK_QUEENSIDE;
+    }
+
+    private GameState() {
+    }
+
+    static int pack(int castlingRights, int enPassantColumn, int halfmoveClock, int fullmoveNumber) {
+        return (castlingRights & 0xF)
+                | ((enPassantColumn & 0xF) << 4)
+                | (Math.min(halfmoveClock, MAX_HALFMOVE_CLOCK) << 8)
+                | (Math.min(fullmoveNumber, MAX_FULLMOVE_NUMBER) << 16);
+    }
+
+    static int castlingRights(int state) {
+        return state & 0xF;
+    }
+
+    /**
+     * @return column (1-8) of the pawn that may be captured en passant, or 0
+     */
+    static int enPassantColumn(int state) {
+        return (state >>> 4) & 0xF;
+    }
+
+    static int halfmoveClock(int state) {
+        return (state >>> 8) & 0xFF;
+    }
+
+    static int fullmoveNumber(int state) {
+        return state >>> 16;
+    }
+
+    /**
+     * Works out the state after a move from one square to another
+     *
+     * @param resetsClock     whether the move was a capture or pawn move
+     * @param enPassantColumn column of a two-square pawn advance, or 0
+     * @param blackMoved      whether the move was Black's, which ends a full move
+     * @return the new state
+     */
+    static int afterMove(int state, int from, int to, boolean resetsClock, int enPassantColumn, boolean blackMoved) {
+        int castling = castlingRights(state) & CASTLING_MASK[from] & CASTLING_MASK[to];
+        int halfmove = resetsClock ? 0 : halfmoveClock(state) + 1;
+        int fullmove = fullmoveNumber(state) + (blackMoved ? 1 : 0);
+        return pack(castling, enPassantColumn, halfmove, fullmove);
+    }
+
+    static int withoutEnPassant(int state) {
+        return state & ~(0xF << 4);
+    }
+
+    /**
+     * Whether a recorded en passant column fits the board: an enemy pawn on
+     * the side to move's fifth row, with the square it skipped and the square
+     * it started from both empty
+     */
+    static boolean isEnPassantPossible(ChessBoard board, ChessGame.TeamColor turn, int column) {
+        if(column < 1 || column > 8) return false;
+        boolean white = turn == ChessGame.TeamColor.WHITE;
+        ChessPiece enemyPawn = ChessPiece.of(white ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        return enemyPawn.equals(board.getPiece(Bitboards.square(white ? 5 : 4, column)))
+                && board.getPiece(Bitboards.square(white ? 6 : 3, column)) == null
+                && board.getPiece(Bitboards.square(white ? 7 : 2, column)) == null;
+    }
+
+    /**
+     * Rights a freshly set-up board can claim: a king and rook of the same
+     * team still on their starting squares
+     */
+    static int castlingRightsFor(ChessBoard board) {
+        int rights = 0;
+        long whiteRooks = board.pieces(Bitboards.WHITE, ChessPiece.PieceType.ROOK);
+        long blackRooks = board.pieces(Bitboards.BLACK, ChessPiece.PieceType.ROOK);
+        if((board.pieces(Bitboards.WHITE, ChessPiece.PieceType.KING) & Bitboards.bit(Bitboards.square(1, 5))) != 0) {
+            if((whiteRooks & Bitboards.bit(Bitboards.square(1, 8))) != 0) rights |= WHITE_KINGSIDE;
+            if((whiteRooks & Bitboards.bit(Bitboards.square(1, 1))) != 0) rights |= WHITE_QUEENSIDE;
+        }
+        if((board.pieces(Bitboards.BLACK, ChessPiece.PieceType.KING) & Bitboards.bit(Bitboards.square(8, 5))) != 0) {
+            if((blackRooks & Bitboards.bit(Bitboards.square(8, 8))) != 0) rights |= BLACK_KINGSIDE;
+            if((blackRooks & Bitboards.bit(Bitboards.square(8, 1))) != 0) rights |= BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+}
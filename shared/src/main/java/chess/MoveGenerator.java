@@ -0,0 +1,234 @@
+package chess;
+
+/**
+ * Generates strictly legal moves for one side of a position.
+ * <p>
+ * Checkers and absolute pins are worked out once per call, and every
+ * candidate is filtered against them, so no move has to be played on the
+ * board and tested for check afterward. King moves are tested with the
+ * king lifted off the board so it can't hide behind itself on a slider's
+ * ray, and en passant is tested on a simulated occupancy since it removes
+ * two pieces from a row at once.
+ */
+final class MoveGenerator {
+
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Adds the legal moves of one side's pieces to a move list
+     *
+     * @param board          the position
+     * @param color          index of the side whose pieces are moving
+     * @param castlingRights which castling moves are still allowed, as {@link GameState} bits
+     * @param epSquare       square a pawn may capture en passant onto, or -1
+     * @param fromMask       only pieces on these squares are considered
+     * @param moves          receives the legal moves
+     */
+    static void generate(ChessBoard board, int color, int castlingRights, int epSquare, long fromMask,
+                         MoveList moves) {
+        generate(board, color, castlingRights, epSquare, fromMask, false, moves);
+    }
+
+    /**
+     * Checks whether one side has any legal move, stopping at the first piece
+     * that has one instead of generating the whole list
+     *
+     * @param scratch caller-owned working space; cleared first, so it can be reused across calls
+     */
+    static boolean hasLegalMove(ChessBoard board, int color, int castlingRights, int epSquare, MoveList scratch) {
+        scratch.clear();
+        generate(board, color, castlingRights, epSquare, ~0L, true, scratch);
+        return !scratch.isEmpty();
+    }
+
+    private static void generate(ChessBoard board, int color, int castlingRights, int epSquare, long fromMask,
+                                 boolean stopAtFirst, MoveList moves) {
+        int enemy = color ^ 1;
+        long own = board.occupancy(color);
+        long occupancy = board.occupancy();
+        int kingSquare = board.kingSquare(color);
+
+        long checkers = 0;
+        long pinned = 0;
+        long checkMask = ~0L;
+        if(kingSquare >= 0) {
+            checkers = board.attackersTo(kingSquare, enemy, occupancy);
+            pinned = pinnedPieces(board, color, kingSquare);
+            if(Long.bitCount(checkers) > 1) {
+                checkMask = 0;
+            } else if(checkers != 0) {
+                // Either capture the checker or step in front of it
+                checkMask = checkers | Attacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+            }
+        }
+
+        long pieces = own & fromMask;
+        while(pieces != 0) {
+            if(stopAtFirst && !moves.isEmpty()) return;
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+            if(type == ChessPiece.PieceType.KING) {
+                kingMoves(board, color, from, castlingRights, checkers == 0, moves);
+                continue;
+            }
+
+            long allowed = checkMask;
+            if((pinned & Bitboards.bit(from)) != 0) {
+                allowed &= Attacks.line(kingSquare, from);
+            }
+            if(allowed == 0) continue;
+
+            long targets = switch(type) {
+                case BISHOP -> Attacks.bishopAttacks(from, occupancy);
+                case KNIGHT -> Attacks.knightAttacks(from);
+                case QUEEN -> Attacks.queenAttacks(from, occupancy);
+                case ROOK -> Attacks.rookAttacks(from, occupancy);
+                default -> pawnTargets(board, color, from, occupancy);
+            };
+            targets &= ~own & allowed;
+
+            if(type == ChessPiece.PieceType.PAWN) {
+                addPawnMoves(from, targets, moves);
+                if(epSquare >= 0) {
+                    enPassant(board, color, from, kingSquare, epSquare, moves);
+                }
+            } else {
+                addMoves(from, targets, moves);
+            }
+        }
+    }
+
+    /**
+     * @return bitboard of the given side's pieces that are the only blocker
+     * between their king and an enemy slider
+     */
+    private static long pinnedPieces(ChessBoard board, int color, int kingSquare) {
+        int enemy = color ^ 1;
+        long enemyOccupancy = board.occupancy(enemy);
+        long queens = board.pieces(enemy, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rookAttacks(kingSquare, enemyOccupancy) & (board.pieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishopAttacks(kingSquare, enemyOccupancy) & (board.pieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+
+        long occupancy = board.occupancy();
+        long pinned = 0;
+        while(snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Attacks.between(kingSquare, sniper) & occupancy;
+            if(Long.bitCount(blockers) == 1) {
+                pinned |= blockers & board.occupancy(color);
+            }
+        }
+        return pinned;
+    }
+
+    private static long pawnTargets(ChessBoard board, int color, int from, long occupancy) {
+        int step = (color == Bitboards.WHITE) ? 8 : -8;
+        int doubleMoveRow = (color == Bitboards.WHITE) ? 2 : 7;
+
+        long targets = Attacks.pawnAttacks(color, from) & board.occupancy(color ^ 1);
+        int oneStep = from + step;
+        if(oneStep >= 0 && oneStep < 64 && (occupancy & Bitboards.bit(oneStep)) == 0) {
+            targets |= Bitboards.bit(oneStep);
+            int twoStep = oneStep + step;
+            if(Bitboards.row(from) == doubleMoveRow && (occupancy & Bitboards.bit(twoStep)) == 0) {
+                targets |= Bitboards.bit(twoStep);
+            }
+        }
+        return targets;
+    }
+
+    private static void kingMoves(ChessBoard board, int color, int from, int castlingRights, boolean notInCheck,
+                                  MoveList moves) {
+        int enemy = color ^ 1;
+        // Lift the king off the board so squares behind it on a checking ray count as attacked
+        long occupancy = board.occupancy() & ~Bitboards.bit(from);
+        long targets = Attacks.kingAttacks(from) & ~board.occupancy(color);
+
+        while(targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if(!board.isSquareAttacked(to, enemy, occupancy)) {
+                moves.add(PackedMove.of(from, to, null));
+            }
+        }
+
+        if(!notInCheck) return;
+
+        int homeSquare = (color == Bitboards.WHITE) ? Bitboards.square(1, 5) : Bitboards.square(8, 5);
+        if(from != homeSquare) return;
+
+        int kingside = (color == Bitboards.WHITE) ? GameState.WHITE_KINGSIDE : GameState.BLACK_KINGSIDE;
+        int queenside = (color == Bitboards.WHITE) ? GameState.WHITE_QUEENSIDE : GameState.BLACK_QUEENSIDE;
+        if((castlingRights & kingside) != 0 && canCastle(board, color, from, from + 3, from + 2)) {
+            moves.add(PackedMove.of(from, from + 2, null));
+        }
+        if((castlingRights & queenside) != 0 && canCastle(board, color, from, from - 4, from - 2)) {
+            moves.add(PackedMove.of(from, from - 2, null));
+        }
+    }
+
+    /**
+     * The rook must still be home, every square between king and rook must be
+     * empty, and neither the square the king crosses nor the one it lands on
+     * may be attacked
+     */
+    private static boolean canCastle(ChessBoard board, int color, int kingSquare, int rookSquare, int kingTarget) {
+        if((board.pieces(color, ChessPiece.PieceType.ROOK) & Bitboards.bit(rookSquare)) == 0) return false;
+        if((Attacks.between(kingSquare, rookSquare) & board.occupancy()) != 0) return false;
+
+        int step = (kingTarget > kingSquare) ? 1 : -1;
+        for(int square = kingSquare + step; square != kingTarget + step; square += step) {
+            if(board.isSquareAttacked(square, color ^ 1)) return false;
+        }
+        return true;
+    }
+
+    private static void enPassant(ChessBoard board, int color, int from, int kingSquare, int epSquare,
+                                  MoveList moves) {
+        if((Attacks.pawnAttacks(color, from) & Bitboards.bit(epSquare)) == 0) return;
+
+        int capturedSquare = epSquare + ((color == Bitboards.WHITE) ? -8 : 8);
+        if((board.pieces(color ^ 1, ChessPiece.PieceType.PAWN) & Bitboards.bit(capturedSquare)) == 0) return;
+
+        if(kingSquare >= 0) {
+            // Both pawns leave their row at once, which can expose the king along it
+            long occupancy = (board.occupancy() & ~Bitboards.bit(from) & ~Bitboards.bit(capturedSquare)) | Bitboards.bit(epSquare);
+            long attackers = board.attackersTo(kingSquare, color ^ 1, occupancy) & ~Bitboards.bit(capturedSquare);
+            if(attackers != 0) return;
+        }
+
+        moves.add(PackedMove.of(from, epSquare, null));
+    }
+
+    private static void addMoves(int from, long targets, MoveList moves) {
+        while(targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(PackedMove.of(from, to, null));
+        }
+    }
+
+    private static void addPawnMoves(int from, long targets, MoveList moves) {
+        while(targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if((Bitboards.bit(to) & (Bitboards.RANK_1 | Bitboards.RANK_8)) != 0) {
+                for(ChessPiece.PieceType type : PROMOTIONS) {
+                    moves.add(PackedMove.of(from, to, type));
+                }
+            } else {
+                moves.add(PackedMove.of(from, to, null));
+            }
+        }
+    }
+}
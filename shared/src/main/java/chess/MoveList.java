@@ -0,0 +1,108 @@
+package chess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * A growable list of {@link PackedMove} ints.
+ * <p>
+ * Meant to be kept and reused: {@link #clear()} keeps the backing array, so
+ * a caller generating moves over and over only allocates when a position
+ * has more moves than any before it.
+ */
+public final class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(64);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if(size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Appends a range of another list's moves
+     *
+     * @param other     the list to copy from
+     * @param fromIndex first move to copy
+     * @param toIndex   one past the last move to copy
+     */
+    public void addAll(MoveList other, int fromIndex, int toIndex) {
+        if(fromIndex < 0 || toIndex > other.size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + "-" + toIndex + " out of bounds for size " + other.size);
+        }
+        int count = toIndex - fromIndex;
+        if(size + count > moves.length) {
+            moves = Arrays.copyOf(moves, Math.max(moves.length * 2, size + count));
+        }
+        System.arraycopy(other.moves, fromIndex, moves, size, count);
+        size += count;
+    }
+
+    public int get(int index) {
+        if(index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if(index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        moves[index] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(int move) {
+        for(int i = 0; i < size; i++) {
+            if(moves[i] == move) return true;
+        }
+        return false;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return a new collection holding each move as a {@link ChessMove}
+     */
+    public Collection<ChessMove> toChessMoves() {
+        return toChessMoves(0, size);
+    }
+
+    /**
+     * @param fromIndex first move to include
+     * @param toIndex   one past the last move to include
+     * @return a new collection holding each move in the range as a {@link ChessMove}
+     */
+    public Collection<ChessMove> toChessMoves(int fromIndex, int toIndex) {
+        if(fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("Range " + fromIndex + "-" + toIndex + " out of bounds for size " + size);
+        }
+        Collection<ChessMove> chessMoves = new ArrayList<>(toIndex - fromIndex);
+        for(int i = fromIndex; i < toIndex; i++) {
+            chessMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
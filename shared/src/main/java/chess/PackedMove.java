@@ -0,0 +1,47 @@
+package chess;
+
+/**
+ * Encodes a move as a single int so move lists can be stored without
+ * allocating a {@link ChessMove} and two {@link ChessPosition}s per move.
+ * <p>
+ * Squares are numbered 0-63 from row 1, column 1 along each row
+ * ((row - 1) * 8 + (column - 1)). Bits 0-5 hold the start square, bits
+ * 6-11 the end square, and bits 12-14 the promotion piece (0 for none,
+ * otherwise the piece type's ordinal plus one).
+ */
+public final class PackedMove {
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int of(int fromSquare, int toSquare, ChessPiece.PieceType promotionPiece) {
+        int promotion = (promotionPiece == null) ? 0 : promotionPiece.ordinal() + 1;
+        return fromSquare | (toSquare << 6) | (promotion << 12);
+    }
+
+    public static int of(ChessMove move) {
+        return of(Bitboards.square(move.getStartPosition()), Bitboards.square(move.getEndPosition()), move.getPromotionPiece());
+    }
+
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if this isn't a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotion = (move >>> 12) & 0x7;
+        return (promotion == 0) ? null : TYPES[promotion - 1];
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return new ChessMove(Bitboards.position(from(move)), Bitboards.position(to(move)), promotion(move));
+    }
+}
@@ -0,0 +1,76 @@
+package chess;
+
+/**
+ * Random keys for Zobrist hashing.
+ * <p>
+ * A position's key is the XOR of one key per (piece, square) pair on the
+ * board, plus keys for the side to move, the castling rights and the en
+ * passant column. Since XOR undoes itself, adding or removing a piece
+ * updates the key with a single XOR. The keys come from a fixed-seed
+ * generator so they are the same in every run and on every machine.
+ */
+final class Zobrist {
+
+    private static final long[] PIECE_SQUARE = new long[12 * 64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_COLUMN = new long[9];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x5EED_C4E5_5EED_C4E5L;
+        for(int i = 0; i < PIECE_SQUARE.length; i++) {
+            seed = nextSeed(seed);
+            PIECE_SQUARE[i] = mix(seed);
+        }
+        // Index 0 (no rights) keeps a key of 0
+        for(int i = 1; i < CASTLING.length; i++) {
+            seed = nextSeed(seed);
+            CASTLING[i] = mix(seed);
+        }
+        // Index 0 (no en passant) keeps a key of 0
+        for(int i = 1; i < EN_PASSANT_COLUMN.length; i++) {
+            seed = nextSeed(seed);
+            EN_PASSANT_COLUMN[i] = mix(seed);
+        }
+        seed = nextSeed(seed);
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {
+    }
+
+    static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[(pieceIndex << 6) | square];
+    }
+
+    static long castling(int castlingRights) {
+        return CASTLING[castlingRights];
+    }
+
+    static long enPassant(int column) {
+        return EN_PASSANT_COLUMN[column];
+    }
+
+    static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+
+    /**
+     * Key for everything in a game state word that identifies a position
+     * (castling rights and en passant, but not the move counters)
+     */
+    static long state(int state) {
+        return CASTLING[GameState.castlingRights(state)] ^ EN_PASSANT_COLUMN[GameState.enPassantColumn(state)];
+    }
+
+    // SplitMix64
+    private static long nextSeed(long seed) {
+        return seed + 0x9E3779B97F4A7C15L;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
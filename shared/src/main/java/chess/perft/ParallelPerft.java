@@ -0,0 +1,179 @@
+package chess.perft;
+
+import chess.*;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts perft nodes on every core with a {@link ForkJoinPool}.
+ * <p>
+ * The tree is split at the root and again at the first ply, giving a few
+ * hundred to a few thousand independent subtrees. Each subtree task copies
+ * the game after its moves and runs a serial {@link Perft} on that copy, so
+ * tasks share nothing mutable and need no locking.
+ */
+public class ParallelPerft {
+
+    /**
+     * Subtrees shallower than this are counted serially rather than split again
+     */
+    private static final int MIN_SPLIT_DEPTH = 3;
+
+    private final ForkJoinPool pool;
+
+    /**
+     * @param parallelism number of worker threads
+     */
+    public ParallelPerft(int parallelism) {
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    public ParallelPerft() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @return the number of leaf nodes of the legal move tree at this depth
+     * @throws IllegalArgumentException if depth is negative
+     */
+    public long count(ChessGame game, int depth) {
+        checkDepth(depth);
+        if(depth == 0) return 1;
+        long nodes = 0;
+        for(long subtotal : divide(game, depth).values()) {
+            nodes += subtotal;
+        }
+        return nodes;
+    }
+
+    /**
+     * @return each root move mapped to its leaf count at depth - 1 below it
+     * @throws IllegalArgumentException if depth is negative
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        checkDepth(depth);
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+
+        List<SubtreeTask> tasks = new ArrayList<>(rootMoves.size());
+        for(int i = 0; i < rootMoves.size(); i++) {
+            ChessGame child = new ChessGame(game);
+            child.makeMoveUnchecked(rootMoves.get(i));
+            tasks.add(new SubtreeTask(child, Math.max(depth - 1, 0), true));
+        }
+
+        for(SubtreeTask task : tasks) {
+            pool.execute(task);
+        }
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for(int i = 0; i < tasks.size(); i++) {
+            counts.put(PackedMove.toChessMove(rootMoves.get(i)), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static void checkDepth(int depth) {
+        if(depth < 0) {
+            throw new IllegalArgumentException("Negative perft depth " + depth);
+        }
+    }
+
+    private static class SubtreeTask extends RecursiveTask<Long> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // Tasks only ever run in this process and are never serialized
+        @SuppressWarnings("serial")
+        private final ChessGame game;
+        private final int depth;
+        private final boolean split;
+
+        SubtreeTask(ChessGame game, int depth, boolean split) {
+            this.game = game;
+            this.depth = depth;
+            this.split = split;
+        }
+
+        @Override
+        protected Long compute() {
+            if(!split || depth < MIN_SPLIT_DEPTH) {
+                return new Perft(game, depth).count(depth);
+            }
+
+            // Fan out once more over the first ply
+            MoveList moves = new MoveList();
+            game.legalMoves(moves);
+            List<SubtreeTask> children = new ArrayList<>(moves.size());
+            for(int i = 0; i < moves.size(); i++) {
+                ChessGame child = new ChessGame(game);
+                child.makeMoveUnchecked(moves.get(i));
+                children.add(new SubtreeTask(child, depth - 1, false));
+            }
+            invokeAll(children);
+
+            long nodes = 0;
+            for(SubtreeTask child : children) {
+                nodes += child.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Command line entry point: {@code ParallelPerft [--threads n] depth [fen]}.
+     * Runs the count serially and in parallel and reports the speedup.
+     */
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            System.out.println("Usage: ParallelPerft [--threads n] depth [fen]");
+            return;
+        }
+
+        int argIndex = 0;
+        int threads = Runtime.getRuntime().availableProcessors();
+        if(args[0].equals("--threads")) {
+            threads = Integer.parseInt(args[1]);
+            argIndex = 2;
+        }
+        int depth = Integer.parseInt(args[argIndex++]);
+        StringBuilder fen = new StringBuilder();
+        for(int i = argIndex; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        ChessGame game = fen.isEmpty() ? new ChessGame() : ChessGame.fromFen(fen);
+
+        long start = System.nanoTime();
+        long serialNodes = new Perft(game, depth).count(depth);
+        long serialNanos = System.nanoTime() - start;
+        System.out.printf("serial:   %,d nodes in %.3f s%n", serialNodes, serialNanos / 1e9);
+
+        ParallelPerft parallel = new ParallelPerft(threads);
+        start = System.nanoTime();
+        long parallelNodes = parallel.count(game, depth);
+        long parallelNanos = System.nanoTime() - start;
+        parallel.shutdown();
+        System.out.printf("parallel: %,d nodes in %.3f s on %d threads%n", parallelNodes, parallelNanos / 1e9, threads);
+
+        if(serialNodes != parallelNodes) {
+            System.out.println("MISMATCH between serial and parallel counts");
+            System.exit(1);
+        }
+        System.out.printf("speedup:  %.2fx%n", (double) serialNanos / parallelNanos);
+    }
+}
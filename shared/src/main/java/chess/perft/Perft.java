@@ -0,0 +1,157 @@
+package chess.perft;
+
+import chess.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Perft ("performance test") counts the leaf nodes of the legal move tree
+ * to a fixed depth. Comparing the counts with published results is the
+ * standard way to catch move generation bugs, and timing them measures
+ * generator throughput.
+ * <p>
+ * Moves are played with {@link ChessGame#makeMoveUnchecked} and taken back
+ * with {@link ChessGame#undoMove()}, with one reused {@link MoveList} per
+ * ply. The last ply is counted without being played ("bulk counting").
+ */
+public class Perft {
+
+    private final ChessGame game;
+    private final MoveList[] moveLists;
+
+    /**
+     * @param game     the position to search; it is left unchanged afterward
+     * @param maxDepth the deepest depth this instance will be asked to count
+     */
+    public Perft(ChessGame game, int maxDepth) {
+        this.game = game;
+        this.moveLists = new MoveList[Math.max(maxDepth, 1)];
+        for(int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * @return the number of leaf nodes of the legal move tree at this depth
+     * @throws IllegalArgumentException if depth is negative or above the constructor's maxDepth
+     */
+    public long count(int depth) {
+        checkDepth(depth);
+        if(depth == 0) return 1;
+        return count(depth, 0);
+    }
+
+    private void checkDepth(int depth) {
+        if(depth < 0) {
+            throw new IllegalArgumentException("Negative perft depth " + depth);
+        }
+        if(depth > moveLists.length) {
+            throw new IllegalArgumentException("Perft depth " + depth + " is deeper than the " + moveLists.length
+                    + " this instance was created for");
+        }
+    }
+
+    private long count(int depth, int ply) {
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(moves);
+        if(depth == 1) return moves.size();
+
+        long nodes = 0;
+        for(int i = 0; i < moves.size(); i++) {
+            game.makeMoveUnchecked(moves.get(i));
+            nodes += count(depth - 1, ply + 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts leaf nodes separately below each legal move of the root, which
+     * narrows a wrong total down to the move whose subtree is off
+     *
+     * @return each root move mapped to its leaf count at depth - 1 below it
+     * @throws IllegalArgumentException if depth is negative or above the constructor's maxDepth
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        checkDepth(depth);
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+
+        for(int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            game.makeMoveUnchecked(move);
+            counts.put(PackedMove.toChessMove(move), (depth <= 1) ? 1 : count(depth - 1, 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Command line entry point.
+     * <pre>
+     * Perft [--divide] depth [fen]   count one position (the initial position by default)
+     * Perft --suite [maxDepth]       check every standard position against its known counts
+     * </pre>
+     */
+    public static void main(String[] args) {
+        if(args.length == 0) {
+            System.out.println("Usage: Perft [--divide] depth [fen] | Perft --suite [maxDepth]");
+            return;
+        }
+
+        if(args[0].equals("--suite")) {
+            int maxDepth = (args.length > 1) ? Integer.parseInt(args[1]) : Integer.MAX_VALUE;
+            System.exit(runSuite(maxDepth) ? 0 : 1);
+        }
+
+        boolean divide = args[0].equals("--divide");
+        int argIndex = divide ? 1 : 0;
+        int depth = Integer.parseInt(args[argIndex++]);
+        StringBuilder fen = new StringBuilder();
+        for(int i = argIndex; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        ChessGame game = fen.isEmpty() ? new ChessGame() : ChessGame.fromFen(fen);
+        Perft perft = new Perft(game, depth);
+
+        long start = System.nanoTime();
+        long nodes;
+        if(divide) {
+            nodes = 0;
+            for(Map.Entry<ChessMove, Long> entry : perft.divide(depth).entrySet()) {
+                System.out.printf("%s: %d%n", entry.getKey(), entry.getValue());
+                nodes += entry.getValue();
+            }
+        } else {
+            nodes = perft.count(depth);
+        }
+        report(depth, nodes, System.nanoTime() - start);
+    }
+
+    private static boolean runSuite(int maxDepth) {
+        boolean allPassed = true;
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            System.out.println(position.name() + ": " + position.fen());
+            Perft perft = new Perft(ChessGame.fromFen(position.fen()), position.maxDepth());
+            for(int depth = 1; depth <= Math.min(maxDepth, position.maxDepth()); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft.count(depth);
+                report(depth, nodes, System.nanoTime() - start);
+                if(nodes != position.expectedNodes(depth)) {
+                    System.out.println("  MISMATCH: expected " + position.expectedNodes(depth));
+                    allPassed = false;
+                }
+            }
+        }
+        return allPassed;
+    }
+
+    private static void report(int depth, long nodes, long nanos) {
+        double seconds = nanos / 1e9;
+        System.out.printf("  depth %d: %,d nodes in %.3f s (%,.0f nodes/sec)%n",
+                depth, nodes, seconds, (seconds > 0) ? nodes / seconds : 0);
+    }
+}
@@ -0,0 +1,53 @@
+package chess.perft;
+
+import java.util.List;
+
+/**
+ * A position with known perft node counts, used to check move generation
+ * against published results.
+ *
+ * @param name       short description of the position
+ * @param fen        the position in Forsyth-Edwards Notation
+ * @param nodeCounts nodeCounts[i] is the number of leaf nodes at depth i + 1
+ */
+public record PerftPosition(String name, String fen, long... nodeCounts) {
+
+    /**
+     * The standard perft suite from the Chess Programming Wiki. Together these
+     * cover castling, en passant, promotions, pins and discovered checks.
+     */
+    public static final List<PerftPosition> STANDARD = List.of(
+            new PerftPosition("Initial position",
+                    "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                    20, 400, 8_902, 197_281, 4_865_609, 119_060_324),
+            new PerftPosition("Kiwipete",
+                    "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    48, 2_039, 97_862, 4_085_603, 193_690_690),
+            new PerftPosition("Rook and pawn endgame",
+                    "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    14, 191, 2_812, 43_238, 674_624, 11_030_083),
+            new PerftPosition("Promotions and checks",
+                    "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    6, 264, 9_467, 422_333, 15_833_292),
+            new PerftPosition("Underpromotion",
+                    "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    44, 1_486, 62_379, 2_103_487, 89_941_194),
+            new PerftPosition("Symmetrical middlegame",
+                    "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    46, 2_079, 89_890, 3_894_594, 164_075_551)
+    );
+
+    /**
+     * @return the deepest depth with a known node count
+     */
+    public int maxDepth() {
+        return nodeCounts.length;
+    }
+
+    /**
+     * @return the known leaf count at the given depth (1-based)
+     */
+    public long expectedNodes(int depth) {
+        return nodeCounts[depth - 1];
+    }
+}
@@ -0,0 +1,451 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.MoveList;
+import chess.PackedMove;
+
+/**
+ * Picks moves with an iterative-deepening alpha-beta search.
+ * <p>
+ * Each iteration runs a negamax alpha-beta search one ply deeper than the
+ * last, ending in a quiescence search over captures and promotions so
+ * leaves are never scored in the middle of an exchange. Moves are tried in
+ * the order: table move, captures by most valuable victim and least
+ * valuable attacker, killer moves, then quiet moves by history score.
+ * Iterations stop at the {@link SearchLimits}; an interrupted iteration is
+ * thrown away, and the last complete one supplies the move.
+ * <p>
+ * An engine searches a private copy of the game with make/undo and is not
+ * thread-safe; use one per thread. Engines may share a
+ * {@link TranspositionTable}.
+ */
+public class Engine {
+
+    public static final int MATE = 30000;
+    public static final int MAX_PLY = 128;
+    /** Size of the table a default-constructed engine allocates */
+    public static final int DEFAULT_TABLE_MEGABYTES = 1;
+
+    private static final int INFINITE = 32000;
+    private static final int NO_MOVE = 0;
+    private static final int CHECK_INTERVAL = 2047;
+
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+
+    // Ordering bands: table move, winning or equal captures and promotions, killers, history
+    private static final int TABLE_MOVE_SCORE = 1 << 30;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 26;
+    private static final int HISTORY_LIMIT = 1 << 24;
+
+    private final TranspositionTable table;
+    private final Evaluator evaluator;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] moveScores = new int[MAX_PLY + 1][256];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][][] history = new int[2][64][64];
+    private final long[] pathKeys = new long[MAX_PLY + 1];
+
+    private ChessGame game;
+    private int rootBestMove;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean timed;
+    private boolean canAbort;
+    private boolean aborted;
+    private volatile boolean stopRequested;
+
+    /**
+     * @param table     position table to read and fill; may be shared with other engines
+     * @param evaluator leaf evaluation
+     */
+    public Engine(TranspositionTable table, Evaluator evaluator) {
+        this.table = table;
+        this.evaluator = evaluator;
+        for(int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList(256);
+        }
+    }
+
+    /**
+     * Creates an engine with its own small table of {@value #DEFAULT_TABLE_MEGABYTES} MB;
+     * pass a larger table for long searches
+     */
+    public Engine() {
+        this(new TranspositionTable(DEFAULT_TABLE_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                new PieceSquareEvaluator());
+    }
+
+    /**
+     * @return the move to play, or null if the side to move has no legal move
+     */
+    public ChessMove bestMove(ChessGame game, SearchLimits limits) {
+        return search(game, limits).bestMove();
+    }
+
+    /**
+     * Searches a position within the given limits. The game is not modified.
+     *
+     * @return the best move found with its score, depth and node count
+     */
+    public SearchResult search(ChessGame rootGame, SearchLimits limits) {
+        table.newSearch();
+        stopRequested = false;
+        return iterate(rootGame, limits, 1);
+    }
+
+    /**
+     * Asks a running search to stop as soon as possible; it still returns the
+     * move from its last complete iteration. Safe to call from any thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * @return positions visited so far by the current or last search
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Clears a stop request ahead of a search started with {@link #iterate}
+     */
+    void resetStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Runs the iterative deepening loop without starting a new table
+     * generation, so several engines can search the same position together
+     *
+     * @param firstDepth the first iteration's depth; helpers start at different
+     *                   depths so they fill the table ahead of each other
+     */
+    SearchResult iterate(ChessGame rootGame, SearchLimits limits, int firstDepth) {
+        long start = System.nanoTime();
+        game = new ChessGame(rootGame);
+        evaluator.setPosition(game);
+        timed = limits.hasTimeLimit();
+        deadline = limits.deadline(start);
+        nodeLimit = limits.maxNodes();
+        nodes = 0;
+        aborted = false;
+        prepareOrdering();
+
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+        if(rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, System.nanoTime() - start);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        for(int depth = Math.min(firstDepth, limits.maxDepth()); depth <= limits.maxDepth(); depth++) {
+            // Depth 1 always finishes, so there is always a move to return
+            canAbort = depth > 1;
+            int score = search(depth, -INFINITE, INFINITE, 0);
+            if(aborted) break;
+
+            bestMove = rootBestMove;
+            bestScore = score;
+            completedDepth = depth;
+            if(Math.abs(score) >= MATE - MAX_PLY) break;
+        }
+        return new SearchResult(PackedMove.toChessMove(bestMove), bestScore, completedDepth, nodes,
+                System.nanoTime() - start);
+    }
+
+    private int search(int depth, int alpha, int beta, int ply) {
+        long key = game.getZobristKey();
+        pathKeys[ply] = key;
+        if(ply > 0 && isDraw(ply)) return 0;
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        if(inCheck && ply < MAX_PLY / 2) depth++;
+        if(depth <= 0) return quiescence(alpha, beta, ply);
+        if(ply >= MAX_PLY) return evaluator.evaluate(game);
+
+        if(countNode()) return 0;
+
+        int tableMove = NO_MOVE;
+        long entry = table.probe(key);
+        if(entry != TranspositionTable.MISS) {
+            long payload = TranspositionTable.payload(entry);
+            tableMove = entryMove(payload);
+            if(ply > 0 && TranspositionTable.depth(entry) >= depth) {
+                int score = fromTable(entryScore(payload), ply);
+                int bound = entryBound(payload);
+                if(bound == EXACT
+                        || (bound == LOWER_BOUND && score >= beta)
+                        || (bound == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(moves);
+        if(moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(moves, ply, tableMove, false);
+
+        int color = game.getTeamTurn().ordinal();
+        int originalAlpha = alpha;
+        int bestScore = -INFINITE;
+        int bestMove = NO_MOVE;
+        for(int i = 0; i < moves.size(); i++) {
+            int move = pickNext(moves, ply, i);
+            boolean quiet = !isCapture(move) && PackedMove.promotion(move) == null;
+
+            game.makeMoveUnchecked(move);
+            int score = -search(depth - 1, -beta, -alpha, ply + 1);
+            game.undoMove();
+            if(aborted) return 0;
+
+            if(score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if(ply == 0) rootBestMove = move;
+                if(score > alpha) {
+                    alpha = score;
+                    if(alpha >= beta) {
+                        if(quiet) rememberCutoff(move, color, depth, ply);
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = (bestScore >= beta) ? LOWER_BOUND : (bestScore > originalAlpha) ? EXACT : UPPER_BOUND;
+        table.store(key, depth, packEntry(bestMove, toTable(bestScore, ply), bound));
+        return bestScore;
+    }
+
+    /**
+     * Searches only captures and promotions until the position is quiet. The
+     * side to move may "stand pat" on the static score instead, unless it is
+     * in check, in which case every evasion is searched.
+     */
+    private int quiescence(int alpha, int beta, int ply) {
+        if(countNode()) return 0;
+
+        boolean inCheck = game.isInCheck(game.getTeamTurn());
+        int bestScore = -INFINITE;
+        if(!inCheck) {
+            bestScore = evaluator.evaluate(game);
+            if(bestScore >= beta || ply >= MAX_PLY) return bestScore;
+            if(bestScore > alpha) alpha = bestScore;
+        } else if(ply >= MAX_PLY) {
+            return evaluator.evaluate(game);
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        game.legalMoves(moves);
+        if(moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        int candidates = scoreMoves(moves, ply, NO_MOVE, !inCheck);
+
+        for(int i = 0; i < candidates; i++) {
+            int move = pickNext(moves, ply, i);
+            game.makeMoveUnchecked(move);
+            int score = -quiescence(-beta, -alpha, ply + 1);
+            game.undoMove();
+            if(aborted) return 0;
+
+            if(score > bestScore) {
+                bestScore = score;
+                if(score > alpha) {
+                    alpha = score;
+                    if(alpha >= beta) break;
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Counts a node and checks the limits every few thousand nodes
+     *
+     * @return whether the search must abort
+     */
+    private boolean countNode() {
+        nodes++;
+        if(canAbort && (nodes & CHECK_INTERVAL) == 0) {
+            if(stopRequested || nodes >= nodeLimit || (timed && System.nanoTime() - deadline >= 0)) {
+                aborted = true;
+            }
+        }
+        return aborted;
+    }
+
+    /**
+     * Draw by the fifty-move rule, or by a position repeating along the
+     * current search path
+     */
+    private boolean isDraw(int ply) {
+        int clock = game.getHalfmoveClock();
+        if(clock >= 100) return true;
+        // Positions only repeat with the same side to move, and not across a capture or pawn move
+        for(int back = ply - 2; back >= 0 && back >= ply - clock; back -= 2) {
+            if(pathKeys[back] == pathKeys[ply]) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gives every move an ordering score
+     *
+     * @param tacticalOnly whether to keep only captures and promotions, moved to the front
+     * @return the number of moves to search
+     */
+    private int scoreMoves(MoveList moves, int ply, int tableMove, boolean tacticalOnly) {
+        ChessBoard board = game.getBoard();
+        int color = game.getTeamTurn().ordinal();
+        int[] scores = moveScores[ply];
+        int candidates = 0;
+        for(int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = PackedMove.from(move);
+            int to = PackedMove.to(move);
+            ChessPiece.PieceType promotion = PackedMove.promotion(move);
+            boolean capture = isCapture(move);
+
+            int score;
+            if(move == tableMove) {
+                score = TABLE_MOVE_SCORE;
+            } else if(capture || promotion != null) {
+                ChessPiece victim = board.getPiece(to);
+                int victimValue = (victim == null) ? (capture ? MaterialEvaluator.value(ChessPiece.PieceType.PAWN) : 0)
+                        : MaterialEvaluator.value(victim.getPieceType());
+                int promotionValue = (promotion == null) ? 0 : MaterialEvaluator.value(promotion);
+                int attackerValue = MaterialEvaluator.value(board.getPiece(from).getPieceType());
+                score = CAPTURE_SCORE + (victimValue + promotionValue) * 16 - attackerValue / 16;
+            } else if(move == killers[ply][0]) {
+                score = KILLER_SCORE + 1;
+            } else if(move == killers[ply][1]) {
+                score = KILLER_SCORE;
+            } else {
+                score = history[color][from][to];
+            }
+
+            if(tacticalOnly && !capture && promotion == null) {
+                score = Integer.MIN_VALUE;
+            } else {
+                candidates++;
+            }
+            scores[i] = score;
+        }
+        return tacticalOnly ? candidates : moves.size();
+    }
+
+    /**
+     * Selection sort step: swaps the best remaining move into place and returns it
+     */
+    private int pickNext(MoveList moves, int ply, int index) {
+        int[] scores = moveScores[ply];
+        int best = index;
+        for(int i = index + 1; i < moves.size(); i++) {
+            if(scores[i] > scores[best]) best = i;
+        }
+        int move = moves.get(best);
+        if(best != index) {
+            scores[best] = scores[index];
+            scores[index] = Integer.MIN_VALUE;
+            moves.set(best, moves.get(index));
+            moves.set(index, move);
+        }
+        return move;
+    }
+
+    private boolean isCapture(int move) {
+        ChessBoard board = game.getBoard();
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        if(board.getPiece(to) != null) return true;
+        // A pawn moving diagonally onto an empty square captures en passant
+        return board.getPiece(from).getPieceType() == ChessPiece.PieceType.PAWN && (from & 7) != (to & 7);
+    }
+
+    private void rememberCutoff(int move, int color, int depth, int ply) {
+        if(killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] scores = history[color][PackedMove.from(move)];
+        scores[PackedMove.to(move)] += depth * depth;
+        if(scores[PackedMove.to(move)] >= HISTORY_LIMIT) {
+            ageHistory();
+        }
+    }
+
+    /**
+     * Clears killers and halves history scores, so ordering from the previous
+     * search still helps without dominating the new one
+     */
+    private void prepareOrdering() {
+        for(int[] plyKillers : killers) {
+            plyKillers[0] = NO_MOVE;
+            plyKillers[1] = NO_MOVE;
+        }
+        ageHistory();
+    }
+
+    private void ageHistory() {
+        for(int[][] colorHistory : history) {
+            for(int[] fromHistory : colorHistory) {
+                for(int to = 0; to < 64; to++) {
+                    fromHistory[to] >>= 1;
+                }
+            }
+        }
+    }
+
+    // Table payload: move in bits 0-15, score in bits 16-31, bound in bits 32-33
+
+    private static long packEntry(int move, int score, int bound) {
+        return (move & 0xFFFFL) | ((long) (score & 0xFFFF) << 16) | ((long) bound << 32);
+    }
+
+    private static int entryMove(long payload) {
+        return (int) (payload & 0xFFFF);
+    }
+
+    private static int entryScore(long payload) {
+        return (short) (payload >>> 16);
+    }
+
+    private static int entryBound(long payload) {
+        return (int) (payload >>> 32) & 3;
+    }
+
+    /**
+     * Mate scores are stored relative to the position rather than the root,
+     * so they stay correct when the position is reached at another ply
+     */
+    private static int toTable(int score, int ply) {
+        if(score >= MATE - MAX_PLY) return score + ply;
+        if(score <= -MATE + MAX_PLY) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if(score >= MATE - MAX_PLY) return score - ply;
+        if(score <= -MATE + MAX_PLY) return score + ply;
+        return score;
+    }
+}
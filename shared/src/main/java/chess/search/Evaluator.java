@@ -0,0 +1,25 @@
+package chess.search;
+
+import chess.ChessGame;
+
+/**
+ * Static evaluation used at the leaves of a search
+ */
+public interface Evaluator {
+
+    /**
+     * @param game the position to score; must not be modified
+     * @return centipawns from the point of view of the side to move
+     */
+    int evaluate(ChessGame game);
+
+    /**
+     * Called with the private copy of the game a search is about to play
+     * moves on, before its first evaluation. Evaluators that follow the board
+     * incrementally attach to it here.
+     *
+     * @param game the game that later evaluate calls will pass
+     */
+    default void setPosition(ChessGame game) {
+    }
+}
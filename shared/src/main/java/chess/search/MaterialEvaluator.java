@@ -0,0 +1,33 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Scores a position by material alone, counting each piece bitboard in
+ * one instruction rather than scanning squares
+ */
+public class MaterialEvaluator implements Evaluator {
+
+    // Indexed by PieceType ordinal: KING, QUEEN, BISHOP, KNIGHT, ROOK, PAWN
+    private static final int[] PIECE_VALUES = {0, 900, 330, 320, 500, 100};
+
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = 0;
+        for(ChessPiece.PieceType type : TYPES) {
+            int count = Long.bitCount(board.getPieces(ChessGame.TeamColor.WHITE, type))
+                    - Long.bitCount(board.getPieces(ChessGame.TeamColor.BLACK, type));
+            score += count * PIECE_VALUES[type.ordinal()];
+        }
+        return (game.getTeamTurn() == ChessGame.TeamColor.WHITE) ? score : -score;
+    }
+
+    public static int value(ChessPiece.PieceType type) {
+        return PIECE_VALUES[type.ordinal()];
+    }
+}
@@ -0,0 +1,161 @@
+package chess.search;
+
+import chess.BoardListener;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Evaluates positions with an {@link NnueNetwork}.
+ * <p>
+ * The hidden layer's pre-activations (the "accumulators", one int16 vector
+ * per perspective) are kept up to date as the board changes: once
+ * {@link #attach attached}, the evaluator listens to the game's board, and
+ * each added or removed piece adds or subtracts one weight row. Boards it
+ * is not attached to are evaluated from scratch. Int16 arithmetic wraps consistently, so undoing a move
+ * restores the accumulators exactly. An evaluation is then only the output
+ * layer: clipped ReLU over both accumulators and a dot product.
+ * <p>
+ * The loops are plain indexed loops over arrays so the JIT can compile them
+ * to SIMD instructions. One evaluator follows one board at a time and is
+ * not thread-safe.
+ */
+public class NnueEvaluator implements Evaluator, BoardListener {
+
+    /** Activation ceiling; accumulator values are clipped to [0, QA] */
+    private static final int QA = 255;
+    /** Scale of the output weights */
+    private static final int QB = 64;
+    /** Converts network output to centipawns */
+    private static final int SCALE = 400;
+
+    private final NnueNetwork network;
+    private final int hidden;
+    // accumulators[perspective], perspective 0 = White, 1 = Black
+    private final short[][] accumulators;
+    // Scratch accumulators for evaluating a board the evaluator isn't attached to
+    private final short[][] detached;
+    private ChessBoard board;
+    private BoardListener previousListener;
+
+    public NnueEvaluator(NnueNetwork network) {
+        this.network = network;
+        this.hidden = network.hidden;
+        this.accumulators = new short[2][hidden];
+        this.detached = new short[2][hidden];
+    }
+
+    /**
+     * Starts following a game's board incrementally, taking over its
+     * listener until {@link #detach}. Detaches from any earlier board first.
+     *
+     * @param game the game whose board later evaluate calls will follow
+     */
+    public void attach(ChessGame game) {
+        detach();
+        board = game.getBoard();
+        previousListener = board.getListener();
+        board.setListener(this);
+        refresh(accumulators, board);
+    }
+
+    /**
+     * Stops following the attached board and gives it back the listener it
+     * had before. Does nothing when not attached.
+     */
+    public void detach() {
+        if(board == null) return;
+        if(board.getListener() == this) {
+            board.setListener(previousListener);
+        }
+        board = null;
+        previousListener = null;
+    }
+
+    @Override
+    public void setPosition(ChessGame game) {
+        attach(game);
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        short[][] current = accumulators;
+        if(game.getBoard() != board) {
+            current = detached;
+            refresh(current, game.getBoard());
+        }
+        int us = (game.getTeamTurn() == ChessGame.TeamColor.WHITE) ? 0 : 1;
+        short[] weights = network.outputWeights;
+        long output = activate(current[us], weights, 0) + activate(current[us ^ 1], weights, hidden);
+        return (int) ((output + network.outputBias) * SCALE / (QA * QB));
+    }
+
+    /**
+     * Clipped ReLU of one accumulator dotted with half of the output weights.
+     * Each term can reach QA * 32767, so the sum is kept in a long.
+     */
+    private long activate(short[] accumulator, short[] weights, int offset) {
+        long sum = 0;
+        for(int i = 0; i < hidden; i++) {
+            int value = accumulator[i];
+            value = (value < 0) ? 0 : value;
+            value = (value > QA) ? QA : value;
+            sum += value * weights[offset + i];
+        }
+        return sum;
+    }
+
+    /**
+     * Rebuilds both accumulators from the pieces on a board
+     */
+    private void refresh(short[][] target, ChessBoard source) {
+        for(short[] accumulator : target) {
+            System.arraycopy(network.featureBiases, 0, accumulator, 0, hidden);
+        }
+        for(int square = 0; square < 64; square++) {
+            ChessPiece piece = source.getPiece(square);
+            if(piece != null) {
+                add(target[0], feature(piece, square, 0));
+                add(target[1], feature(piece, square, 1));
+            }
+        }
+    }
+
+    @Override
+    public void pieceAdded(ChessPiece piece, int square) {
+        add(accumulators[0], feature(piece, square, 0));
+        add(accumulators[1], feature(piece, square, 1));
+    }
+
+    @Override
+    public void pieceRemoved(ChessPiece piece, int square) {
+        subtract(accumulators[0], feature(piece, square, 0));
+        subtract(accumulators[1], feature(piece, square, 1));
+    }
+
+    private void add(short[] accumulator, int feature) {
+        short[] weights = network.featureWeights;
+        int offset = feature * hidden;
+        for(int i = 0; i < hidden; i++) {
+            accumulator[i] += weights[offset + i];
+        }
+    }
+
+    private void subtract(short[] accumulator, int feature) {
+        short[] weights = network.featureWeights;
+        int offset = feature * hidden;
+        for(int i = 0; i < hidden; i++) {
+            accumulator[i] -= weights[offset + i];
+        }
+    }
+
+    /**
+     * Input index of a piece as seen from one side: that side's pieces come
+     * first and the board is flipped for Black, so both perspectives share weights
+     */
+    private static int feature(ChessPiece piece, int square, int perspective) {
+        int color = (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? 0 : 1;
+        int relativeSquare = (perspective == 0) ? square : square ^ 56;
+        return ((color ^ perspective) * 6 + piece.getPieceType().ordinal()) * 64 + relativeSquare;
+    }
+}
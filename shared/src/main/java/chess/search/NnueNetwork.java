@@ -0,0 +1,124 @@
+package chess.search;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+
+/**
+ * Quantized weights of a small efficiently-updatable network: 768 inputs
+ * (one per piece type, color and square) feeding a hidden layer of
+ * {@link #hiddenSize()} int16 neurons per perspective, both perspectives
+ * feeding one output.
+ * <p>
+ * File layout, little-endian:
+ * <pre>
+ * int   magic ('NNUE')
+ * int   format version
+ * int   hidden size H
+ * short feature weights [768][H], feature-major
+ * short feature biases  [H]
+ * short output weights  [2H], side to move first
+ * short output bias
+ * </pre>
+ */
+public final class NnueNetwork {
+
+    public static final int INPUTS = 768;
+
+    private static final int MAGIC = 0x45554E4E;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;
+
+    final int hidden;
+    final short[] featureWeights;
+    final short[] featureBiases;
+    final short[] outputWeights;
+    final short outputBias;
+
+    private NnueNetwork(int hidden, short[] featureWeights, short[] featureBiases, short[] outputWeights,
+                        short outputBias) {
+        this.hidden = hidden;
+        this.featureWeights = featureWeights;
+        this.featureBiases = featureBiases;
+        this.outputWeights = outputWeights;
+        this.outputBias = outputBias;
+    }
+
+    /**
+     * Maps a weights file into memory and reads it. The weights are copied
+     * once into heap arrays, where the JIT can vectorize the loops over them.
+     *
+     * @throws IOException if the file can't be read or isn't a network in this format
+     */
+    public static NnueNetwork load(Path path) throws IOException {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if(mapped.remaining() < HEADER_BYTES || mapped.getInt(0) != MAGIC) {
+                throw new IOException("Not a network file: " + path);
+            }
+            if(mapped.getInt(4) != VERSION) {
+                throw new IOException("Unsupported network version " + mapped.getInt(4) + " in " + path);
+            }
+            int hidden = mapped.getInt(8);
+            if(hidden <= 0 || channel.size() != HEADER_BYTES + 2L * ((INPUTS + 3L) * hidden + 1)) {
+                throw new IOException("Network file " + path + " has the wrong size for hidden size " + hidden);
+            }
+
+            ShortBuffer shorts = mapped.position(HEADER_BYTES).slice().order(ByteOrder.LITTLE_ENDIAN).asShortBuffer();
+            short[] featureWeights = new short[INPUTS * hidden];
+            short[] featureBiases = new short[hidden];
+            short[] outputWeights = new short[2 * hidden];
+            shorts.get(featureWeights).get(featureBiases).get(outputWeights);
+            return new NnueNetwork(hidden, featureWeights, featureBiases, outputWeights, shorts.get());
+        }
+    }
+
+    /**
+     * Writes the network in the format {@link #load} reads
+     */
+    public void write(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 2 * ((INPUTS + 3) * hidden + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(hidden);
+        ShortBuffer shorts = buffer.asShortBuffer();
+        shorts.put(featureWeights).put(featureBiases).put(outputWeights).put(outputBias);
+        buffer.rewind();
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Builds a network with small random weights, for tests and benchmarks
+     * when no trained weights file is at hand
+     */
+    public static NnueNetwork random(int hidden, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        short[] featureWeights = new short[INPUTS * hidden];
+        short[] featureBiases = new short[hidden];
+        short[] outputWeights = new short[2 * hidden];
+        for(int i = 0; i < featureWeights.length; i++) {
+            featureWeights[i] = (short) random.nextInt(-32, 33);
+        }
+        for(int i = 0; i < hidden; i++) {
+            featureBiases[i] = (short) random.nextInt(0, 64);
+        }
+        for(int i = 0; i < outputWeights.length; i++) {
+            outputWeights[i] = (short) random.nextInt(-64, 65);
+        }
+        return new NnueNetwork(hidden, featureWeights, featureBiases, outputWeights, (short) 0);
+    }
+
+    public int hiddenSize() {
+        return hidden;
+    }
+}
@@ -0,0 +1,175 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Searches one position on several cores with "lazy SMP": every thread runs
+ * the same iterative-deepening {@link Engine} search on its own copy of the
+ * game, with its own killer and history tables, and they cooperate only
+ * through a shared lock-free {@link TranspositionTable}. Threads start at
+ * staggered depths, so each one finds entries the others have stored and
+ * skips ahead.
+ * <p>
+ * The calling thread runs the main search; when it stops, the helpers are
+ * stopped too, and the deepest completed iteration of any thread supplies
+ * the move.
+ */
+public class ParallelEngine {
+
+    private final TranspositionTable table;
+    private final Engine[] engines;
+    private final ExecutorService helpers;
+
+    /**
+     * @param threads    number of searching threads, including the caller's
+     * @param table      the table every thread shares
+     * @param evaluators creates one evaluator per thread
+     */
+    public ParallelEngine(int threads, TranspositionTable table, Supplier<Evaluator> evaluators) {
+        if(threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread: " + threads);
+        }
+        this.table = table;
+        this.engines = new Engine[threads];
+        for(int i = 0; i < threads; i++) {
+            engines[i] = new Engine(table, evaluators.get());
+        }
+        this.helpers = (threads > 1) ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Creates an engine sharing a small table of {@value Engine#DEFAULT_TABLE_MEGABYTES} MB;
+     * pass a larger table for long searches
+     */
+    public ParallelEngine(int threads) {
+        this(threads, new TranspositionTable(Engine.DEFAULT_TABLE_MEGABYTES, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                PieceSquareEvaluator::new);
+    }
+
+    public ParallelEngine() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public int getThreads() {
+        return engines.length;
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return the move to play, or null if the side to move has no legal move
+     */
+    public ChessMove bestMove(ChessGame game, SearchLimits limits) {
+        return search(game, limits).bestMove();
+    }
+
+    /**
+     * Searches a position on every thread within the given limits. A node
+     * budget is split evenly between the threads. The game is not modified.
+     *
+     * @return the deepest result, with nodes summed over all threads
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        long start = System.nanoTime();
+        table.newSearch();
+        SearchLimits threadLimits = (limits.maxNodes() == Long.MAX_VALUE) ? limits
+                : limits.withNodes(Math.max(1, limits.maxNodes() / engines.length));
+
+        List<Future<SearchResult>> helperResults = new ArrayList<>(engines.length - 1);
+        for(int i = 1; i < engines.length; i++) {
+            Engine helper = engines[i];
+            int firstDepth = 1 + (i & 1);
+            helper.resetStop();
+            helperResults.add(helpers.submit(() -> helper.iterate(game, threadLimits, firstDepth)));
+        }
+
+        engines[0].resetStop();
+        SearchResult best = engines[0].iterate(game, threadLimits, 1);
+        for(int i = 1; i < engines.length; i++) {
+            engines[i].stop();
+        }
+
+        long nodes = best.nodes();
+        for(Future<SearchResult> future : helperResults) {
+            SearchResult result = awaitHelper(future);
+            nodes += result.nodes();
+            if(result.bestMove() != null && result.depth() > best.depth()) {
+                best = result;
+            }
+        }
+        return new SearchResult(best.bestMove(), best.score(), best.depth(), nodes, System.nanoTime() - start);
+    }
+
+    private static SearchResult awaitHelper(Future<SearchResult> future) {
+        try {
+            return future.get();
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for search helpers", e);
+        } catch(ExecutionException e) {
+            throw new IllegalStateException("Search helper failed", e.getCause());
+        }
+    }
+
+    public void shutdown() {
+        if(helpers != null) helpers.shutdownNow();
+    }
+
+    /**
+     * Command line entry point: {@code ParallelEngine [--time ms] [--threads n] [fen]}.
+     * Searches the position for the given time with 1, 2, 4, ... up to n
+     * threads and reports depth, nodes/sec and scaling relative to one thread.
+     */
+    public static void main(String[] args) {
+        long timeMillis = 200;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int argIndex = 0;
+        while(argIndex < args.length && args[argIndex].startsWith("--")) {
+            switch(args[argIndex]) {
+                case "--time" -> timeMillis = Long.parseLong(args[argIndex + 1]);
+                case "--threads" -> maxThreads = Integer.parseInt(args[argIndex + 1]);
+                default -> {
+                    System.out.println("Usage: ParallelEngine [--time ms] [--threads n] [fen]");
+                    return;
+                }
+            }
+            argIndex += 2;
+        }
+        StringBuilder fen = new StringBuilder();
+        for(int i = argIndex; i < args.length; i++) {
+            fen.append(args[i]).append(' ');
+        }
+        ChessGame game = fen.isEmpty() ? new ChessGame() : ChessGame.fromFen(fen);
+
+        double baseline = 0;
+        for(int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ParallelEngine engine = new ParallelEngine(threads,
+                    new TranspositionTable(64, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED), PieceSquareEvaluator::new);
+            engine.search(game, SearchLimits.time(timeMillis));     // warm up
+            engine.getTable().clear();
+            SearchResult result = engine.search(game, SearchLimits.time(timeMillis));
+            engine.shutdown();
+
+            if(threads == 1) baseline = result.nodesPerSecond();
+            System.out.printf("%2d threads: %s depth %d score %d, %,d nodes, %,.0f nodes/sec (%.2fx)%n",
+                    threads, result.bestMove(), result.depth(), result.score(), result.nodes(),
+                    result.nodesPerSecond(), result.nodesPerSecond() / baseline);
+            if(threads == maxThreads) break;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+
+/**
+ * Scores a position by tapered material and piece-square values. The board
+ * maintains the sums itself as pieces move, so each evaluation is a few
+ * field reads and one blend.
+ */
+public class PieceSquareEvaluator implements Evaluator {
+
+    private final boolean verify;
+
+    public PieceSquareEvaluator() {
+        this(false);
+    }
+
+    /**
+     * @param verify whether to recompute every score from scratch and fail on
+     *               any difference; slow, for catching drift in tests
+     */
+    public PieceSquareEvaluator(boolean verify) {
+        this.verify = verify;
+    }
+
+    @Override
+    public int evaluate(ChessGame game) {
+        ChessBoard board = game.getBoard();
+        int score = board.getPositionalScore();
+        if(verify && score != board.rescanPositionalScore()) {
+            throw new IllegalStateException("Incremental score " + score + " drifted from rescan "
+                    + board.rescanPositionalScore());
+        }
+        return (game.getTeamTurn() == ChessGame.TeamColor.WHITE) ? score : -score;
+    }
+}
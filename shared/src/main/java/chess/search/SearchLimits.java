@@ -0,0 +1,65 @@
+package chess.search;
+
+/**
+ * How far a search may go before it must return a move. Whichever limit is
+ * reached first ends the search; the deepest fully completed iteration
+ * supplies the answer.
+ *
+ * @param maxDepth   deepest iteration to run, in plies (1-{@value #MAX_DEPTH})
+ * @param maxNodes   node budget
+ * @param timeMillis wall-clock budget, measured from the start of the search
+ */
+public record SearchLimits(int maxDepth, long maxNodes, long timeMillis) {
+
+    public static final int MAX_DEPTH = 64;
+
+    public SearchLimits {
+        if(maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + MAX_DEPTH + ": " + maxDepth);
+        }
+        if(maxNodes <= 0 || timeMillis <= 0) {
+            throw new IllegalArgumentException("Node and time budgets must be positive");
+        }
+    }
+
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(MAX_DEPTH, Long.MAX_VALUE, timeMillis);
+    }
+
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(MAX_DEPTH, maxNodes, Long.MAX_VALUE);
+    }
+
+    public SearchLimits withDepth(int maxDepth) {
+        return new SearchLimits(maxDepth, maxNodes, timeMillis);
+    }
+
+    public SearchLimits withNodes(long maxNodes) {
+        return new SearchLimits(maxDepth, maxNodes, timeMillis);
+    }
+
+    public SearchLimits withTime(long timeMillis) {
+        return new SearchLimits(maxDepth, maxNodes, timeMillis);
+    }
+
+    /**
+     * @return whether the time budget is short enough to track; longer budgets
+     * never run out
+     */
+    boolean hasTimeLimit() {
+        return timeMillis < Long.MAX_VALUE / 1_000_000;
+    }
+
+    /**
+     * The time at which a search started at startNanos must stop, in
+     * {@link System#nanoTime()} units. Like nanoTime itself it may wrap, so
+     * compare it by subtraction. Only meaningful when {@link #hasTimeLimit()}.
+     */
+    long deadline(long startNanos) {
+        return startNanos + timeMillis * 1_000_000;
+    }
+}
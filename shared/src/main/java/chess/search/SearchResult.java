@@ -0,0 +1,27 @@
+package chess.search;
+
+import chess.ChessMove;
+
+/**
+ * The outcome of a search
+ *
+ * @param bestMove     the move to play, or null if the side to move has none
+ * @param score        centipawns from the side to move's view; mate scores are
+ *                     within {@link Engine#MAX_PLY} of +/-{@link Engine#MATE}
+ * @param depth        deepest fully completed iteration
+ * @param nodes        positions visited, quiescence included
+ * @param elapsedNanos wall-clock time spent
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes, long elapsedNanos) {
+
+    public double nodesPerSecond() {
+        return (elapsedNanos > 0) ? nodes * 1e9 / elapsedNanos : 0;
+    }
+
+    /**
+     * @return whether the score announces a forced mate for either side
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Engine.MATE - Engine.MAX_PLY;
+    }
+}
@@ -0,0 +1,224 @@
+package chess.search;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of positions that many threads can probe and
+ * store into at once without locks.
+ * <p>
+ * Entries live off-heap in a direct buffer, two longs each: the position
+ * key XORed with the data, then the data. Writers store both words without
+ * synchronization, so a reader can see half of one write and half of
+ * another; it recomputes key ^ data and only accepts the entry if that
+ * gives back the key it asked for. A torn entry fails that check and is
+ * treated as a miss (Hyatt and Mann's lockless hashing).
+ * <p>
+ * Each data word carries an 8-bit depth, a 7-bit generation and a valid
+ * bit that the table manages, plus a 48-bit payload owned by the caller.
+ * The depth and generation drive the {@link ReplacementPolicy}.
+ */
+public class TranspositionTable {
+
+    /**
+     * Decides whether a store may overwrite an entry for a different position
+     */
+    public enum ReplacementPolicy {
+        /** Always overwrite; favors recent positions */
+        ALWAYS,
+        /** Keep a deeper entry from the current generation; favors expensive results */
+        DEPTH_PREFERRED
+    }
+
+    /** Returned by {@link #probe} when the table holds nothing for the key */
+    public static final long MISS = 0;
+
+    public static final int MAX_DEPTH = 0xFF;
+    public static final long MAX_PAYLOAD = (1L << 48) - 1;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final long VALID_BIT = 1L << 15;
+    private static final int GENERATION_MASK = 0x7F;
+
+    private final LongBuffer entries;
+    private final int indexMask;
+    private final ReplacementPolicy policy;
+    private volatile int generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder collisions = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+    private final LongAdder rejectedStores = new LongAdder();
+
+    /**
+     * @param sizeInMegabytes memory to use; rounded down to a power-of-two number
+     *                        of entries, capped at 1 GB
+     * @param policy          how stores treat entries for other positions
+     */
+    public TranspositionTable(int sizeInMegabytes, ReplacementPolicy policy) {
+        long bytes = Math.min((long) Math.max(sizeInMegabytes, 1) << 20, 1L << 30);
+        int entryCount = Integer.highestOneBit((int) (bytes / ENTRY_BYTES));
+        this.entries = ByteBuffer.allocateDirect(entryCount * ENTRY_BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+        this.indexMask = entryCount - 1;
+        this.policy = policy;
+    }
+
+    /**
+     * Looks up a position
+     *
+     * @param key the position's 64-bit hash, such as {@code ChessGame.getZobristKey()}
+     * @return the stored data word, or {@link #MISS}
+     */
+    public long probe(long key) {
+        int slot = slot(key);
+        long check = entries.get(slot);
+        long data = entries.get(slot + 1);
+
+        if(data == 0) {
+            misses.increment();
+            return MISS;
+        }
+        if((check ^ data) != key) {
+            // Another position (or a torn write) occupies the slot
+            misses.increment();
+            collisions.increment();
+            return MISS;
+        }
+        hits.increment();
+        return data;
+    }
+
+    /**
+     * Stores a result for a position, subject to the replacement policy.
+     * An entry for the same position is always overwritten.
+     *
+     * @param key     the position's 64-bit hash
+     * @param depth   how deep the stored result was searched; values above 255 are stored as 255
+     * @param payload caller data, 0 to {@link #MAX_PAYLOAD}
+     * @throws IllegalArgumentException if depth is negative or payload is out of range
+     */
+    public void store(long key, int depth, long payload) {
+        if(depth < 0) {
+            throw new IllegalArgumentException("Negative depth " + depth);
+        }
+        if(payload < 0 || payload > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("Payload " + payload + " does not fit in 48 bits");
+        }
+        int slot = slot(key);
+        long oldData = entries.get(slot + 1);
+        long oldKey = entries.get(slot) ^ oldData;
+
+        if(oldData != 0 && oldKey != key && policy == ReplacementPolicy.DEPTH_PREFERRED
+                && generation(oldData) == generation && depth(oldData) > depth) {
+            rejectedStores.increment();
+            return;
+        }
+
+        long data = (payload << 16) | VALID_BIT | ((long) generation << 8) | Math.min(depth, MAX_DEPTH);
+        entries.put(slot, key ^ data);
+        entries.put(slot + 1, data);
+        stores.increment();
+    }
+
+    /**
+     * Starts a new generation, so entries from earlier searches become
+     * replaceable regardless of depth
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Empties the table and resets the counters
+     */
+    public void clear() {
+        for(int i = 0; i < entries.capacity(); i++) {
+            entries.put(i, 0L);
+        }
+        resetCounters();
+    }
+
+    public void resetCounters() {
+        hits.reset();
+        misses.reset();
+        collisions.reset();
+        stores.reset();
+        rejectedStores.reset();
+    }
+
+    public static int depth(long data) {
+        return (int) (data & 0xFF);
+    }
+
+    public static long payload(long data) {
+        return data >>> 16;
+    }
+
+    private static int generation(long data) {
+        return (int) (data >>> 8) & GENERATION_MASK;
+    }
+
+    private int slot(long key) {
+        // Use the high bits for the index; the low bits already vary within a slot's key
+        return ((int) (key >>> 32) & indexMask) << 1;
+    }
+
+    /**
+     * @return how many permille of a sample of entries are in use
+     */
+    public int hashfull() {
+        int sample = Math.min(1000, getCapacity());
+        int used = 0;
+        for(int i = 0; i < sample; i++) {
+            if(entries.get((i << 1) + 1) != 0) used++;
+        }
+        return used * 1000 / sample;
+    }
+
+    public int getCapacity() {
+        return indexMask + 1;
+    }
+
+    public long getSizeInBytes() {
+        return (long) getCapacity() * ENTRY_BYTES;
+    }
+
+    public ReplacementPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return probes that found a slot holding a different position (or a torn entry)
+     */
+    public long getCollisions() {
+        return collisions.sum();
+    }
+
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return stores the replacement policy turned away
+     */
+    public long getRejectedStores() {
+        return rejectedStores.sum();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TranspositionTable[%d entries, %s, hits=%d, misses=%d, collisions=%d, stores=%d]",
+                getCapacity(), policy, getHits(), getMisses(), getCollisions(), getStores());
+    }
+}
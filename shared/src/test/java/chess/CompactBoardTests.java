@@ -0,0 +1,38 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class CompactBoardTests {
+
+    @Test
+    @DisplayName("Round Trip Through ChessBoard")
+    public void roundTrip() {
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            ChessBoard board = ChessGame.fromFen(position.fen()).getBoard();
+            CompactBoard compact = new CompactBoard(board);
+            ChessBoard restored = compact.toChessBoard();
+
+            Assertions.assertEquals(board, restored, "Board changed in round trip for " + position.name());
+            Assertions.assertEquals(board.getZobristKey(), restored.getZobristKey());
+            Assertions.assertEquals(compact, new CompactBoard(restored));
+        }
+    }
+
+    @Test
+    @DisplayName("Get And Add Piece")
+    public void getAndAddPiece() {
+        CompactBoard compact = new CompactBoard();
+        ChessPosition position = new ChessPosition(4, 5);
+        Assertions.assertNull(compact.getPiece(position));
+
+        ChessPiece knight = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        compact.addPiece(position, knight);
+        Assertions.assertEquals(knight, compact.getPiece(position));
+
+        compact.addPiece(position, null);
+        Assertions.assertNull(compact.getPiece(position));
+    }
+}
@@ -0,0 +1,115 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.CharBuffer;
+
+public class FenTests {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    @DisplayName("Starting Position")
+    public void startingPosition() {
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(START));
+        Assertions.assertEquals(START, new ChessGame().toFen());
+    }
+
+    @Test
+    @DisplayName("Round Trip Standard Positions")
+    public void roundTripPositions() {
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            Assertions.assertEquals(position.fen().trim(), game.toFen(), "Wrong FEN for " + position.name());
+            Assertions.assertEquals(game, ChessGame.fromFen(game.toFen()));
+        }
+    }
+
+    @Test
+    @DisplayName("Matches Played Moves")
+    public void matchesPlayedMoves() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        String fen = "rnbqkb1r/ppp1pppp/5n2/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3";
+        Assertions.assertEquals(fen, game.toFen());
+
+        ChessGame parsed = ChessGame.fromFen(fen);
+        Assertions.assertEquals(game, parsed);
+        Assertions.assertEquals(game.getZobristKey(), parsed.getZobristKey());
+        Assertions.assertEquals(3, parsed.getFullmoveNumber());
+        Assertions.assertTrue(parsed.validMoves(new ChessPosition(5, 5))
+                .contains(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 4), null)),
+                "En passant should be available after parsing");
+    }
+
+    @Test
+    @DisplayName("Parses Any Char Sequence")
+    public void parsesCharSequences() {
+        char[] chars = ("  " + START + "  ").toCharArray();
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(CharBuffer.wrap(chars)));
+        Assertions.assertEquals(new ChessGame(), ChessGame.fromFen(new StringBuilder(START)));
+    }
+
+    @Test
+    @DisplayName("Optional Counters And Castling Sanity")
+    public void optionalCountersAndCastling() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K2R w KQkq -");
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+        // Only White's kingside rook is home, so the other rights are dropped
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K2R w K - 0 1", game.toFen());
+    }
+
+    @Test
+    @DisplayName("Rejects Malformed FEN")
+    public void rejectsMalformed() {
+        String[] malformed = {
+                "",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQxq - 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+        };
+        for(String fen : malformed) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), "Should reject \"" + fen + "\"");
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects Impossible Positions And Counters")
+    public void rejectsImpossible() {
+        String[] impossible = {
+                "8/8/8/8/8/8/8/8 w - - 0 1",
+                "4k3/8/8/8/8/8/8/8 w - - 0 1",
+                "4k3/8/8/8/8/8/8/2K1K3 w - - 0 1",
+                "4k2k/8/8/8/8/8/8/4K3 b - - 0 1",
+                "4k3/8/8/8/8/8/8/4K3 w - - 256 200",
+                "4k3/8/8/8/8/8/8/4K3 w - - 300 200",
+                "4k3/8/8/8/8/8/8/4K3 w - - 0 65536",
+                "4k3/8/8/8/8/8/8/4K3 w - - 99999999999 1",
+                // No Black pawn on e5 to take en passant
+                "4k3/8/8/4P3/8/8/8/4K3 w - e6 0 1",
+                "4k3/8/8/8/8/8/8/4K3 b - e3 0 1",
+                // The skipped square or the pawn's start square is occupied
+                "4k3/8/4n3/3Pp3/8/8/8/4K3 w - e6 0 1",
+                "4k3/4n3/8/3Pp3/8/8/8/4K3 w - e6 0 1",
+                "4k3/8/8/8/3pP3/4N3/8/4K3 b - e3 0 1",
+        };
+        for(String fen : impossible) {
+            Assertions.assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), "Should reject \"" + fen + "\"");
+        }
+
+        String largest = "4k3/8/8/8/8/8/8/4K3 w - - 255 65535";
+        Assertions.assertEquals(largest, ChessGame.fromFen(largest).toFen());
+    }
+}
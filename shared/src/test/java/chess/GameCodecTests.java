@@ -0,0 +1,98 @@
+package chess;
+
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+public class GameCodecTests {
+
+    @Test
+    @DisplayName("Round Trip Standard Positions")
+    public void roundTripPositions() {
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            assertRoundTrip(game);
+        }
+    }
+
+    @Test
+    @DisplayName("Round Trip Keeps En Passant And Counters")
+    public void roundTripState() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(8, 7), new ChessPosition(6, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        ChessGame decoded = assertRoundTrip(game);
+        Assertions.assertEquals(game.getHalfmoveClock(), decoded.getHalfmoveClock());
+        Assertions.assertEquals(game.getFullmoveNumber(), decoded.getFullmoveNumber());
+        Assertions.assertTrue(decoded.validMoves(new ChessPosition(5, 5))
+                        .contains(new ChessMove(new ChessPosition(5, 5), new ChessPosition(6, 4), null)),
+                "En passant should survive encoding");
+    }
+
+    @Test
+    @DisplayName("Encodes In Place In A Shared Buffer")
+    public void sharedBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(3 + 2 * GameCodec.ENCODED_SIZE);
+        buffer.put(new byte[]{1, 2, 3});
+        ChessGame first = new ChessGame();
+        ChessGame second = ChessGame.fromFen(PerftPosition.STANDARD.get(1).fen());
+        GameCodec.encode(first, buffer);
+        GameCodec.encode(second, buffer);
+        Assertions.assertEquals(0, buffer.remaining());
+
+        buffer.position(3);
+        Assertions.assertEquals(first, GameCodec.decode(buffer));
+        Assertions.assertEquals(second, GameCodec.decode(buffer));
+    }
+
+    @Test
+    @DisplayName("Rejects Unknown Version")
+    public void rejectsUnknownVersion() {
+        byte[] bytes = GameCodec.encode(new ChessGame());
+        bytes[0] = 99;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(bytes));
+    }
+
+    @Test
+    @DisplayName("Rejects Corrupt En Passant Column")
+    public void rejectsCorruptEnPassant() {
+        byte[] outOfRange = GameCodec.encode(new ChessGame());
+        // State word is big-endian; en passant column is bits 4-7 of the last byte
+        outOfRange[GameCodec.ENCODED_SIZE - 1] |= (byte) (9 << 4);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(outOfRange));
+
+        byte[] noPawn = GameCodec.encode(new ChessGame());
+        noPawn[GameCodec.ENCODED_SIZE - 1] |= (byte) (5 << 4);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(noPawn));
+    }
+
+    @Test
+    @DisplayName("Drops Castling Rights The Board Can't Support")
+    public void masksCorruptCastling() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/8/8/8/8/4K3 w - - 0 1");
+        byte[] bytes = GameCodec.encode(game);
+        bytes[GameCodec.ENCODED_SIZE - 1] |= 0xF;
+
+        ChessGame decoded = GameCodec.decode(bytes);
+        Assertions.assertEquals(game, decoded);
+        Assertions.assertEquals(game.getZobristKey(), decoded.getZobristKey());
+        Assertions.assertEquals("4k3/8/8/8/8/8/8/4K3 w - - 0 1", decoded.toFen());
+    }
+
+    private static ChessGame assertRoundTrip(ChessGame game) {
+        byte[] bytes = GameCodec.encode(game);
+        Assertions.assertEquals(GameCodec.ENCODED_SIZE, bytes.length);
+
+        ChessGame decoded = GameCodec.decode(bytes);
+        Assertions.assertEquals(game, decoded, "Game changed in round trip");
+        Assertions.assertEquals(game.getTeamTurn(), decoded.getTeamTurn());
+        Assertions.assertEquals(game.getZobristKey(), decoded.getZobristKey());
+        return decoded;
+    }
+}
@@ -0,0 +1,105 @@
+package chess;
+
+import com.sun.management.ThreadMXBean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+public class GameStatusCacheTests {
+
+    // Black has just played 2...Qh4; White can't escape
+    private static final ChessMove FOOLS_MATE = new ChessMove(new ChessPosition(8, 4), new ChessPosition(4, 8), null);
+
+    @Test
+    @DisplayName("Status Follows Moves And Take Backs")
+    public void movesAndTakeBacks() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 6), new ChessPosition(3, 6), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(2, 7), new ChessPosition(4, 7), null));
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.WHITE));
+
+        game.makeMove(FOOLS_MATE);
+        Assertions.assertEquals(ChessGame.GameStatus.CHECKMATE, game.getStatus(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+
+        Assertions.assertEquals(FOOLS_MATE, game.takeBack());
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.WHITE));
+        Assertions.assertFalse(game.isInCheckmate(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Status Follows Set Board")
+    public void setBoard() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.BLACK));
+
+        // Black king in the corner, boxed in by the White queen but not attacked
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(6, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Assertions.assertEquals(ChessGame.GameStatus.STALEMATE, game.getStatus(ChessGame.TeamColor.BLACK));
+        Assertions.assertTrue(game.isInStalemate(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    @DisplayName("Status Follows Direct Board Edits")
+    public void directBoardEdit() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.WHITE));
+
+        // Clear the f2 pawn and put a Black queen on h4 to check the White king
+        game.getBoard().addPiece(new ChessPosition(2, 6), null);
+        game.getBoard().addPiece(new ChessPosition(4, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+        Assertions.assertEquals(ChessGame.GameStatus.CHECK, game.getStatus(ChessGame.TeamColor.WHITE));
+        Assertions.assertTrue(game.isInCheck(ChessGame.TeamColor.WHITE));
+
+        game.getBoard().addPiece(new ChessPosition(4, 8), null);
+        Assertions.assertEquals(ChessGame.GameStatus.NORMAL, game.getStatus(ChessGame.TeamColor.WHITE));
+    }
+
+    @Test
+    @DisplayName("Status Search Allocates Nothing")
+    public void statusAllocatesNothing() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean,
+                "Thread allocation counters unavailable");
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean.isThreadAllocatedMemorySupported(), "Thread allocation counters unavailable");
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        ChessGame game = new ChessGame();
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+
+        statusLoop(game, rootMoves, 20_000);     // warm up
+        long thread = Thread.currentThread().threadId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        int normal = statusLoop(game, rootMoves, 20_000);
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        Assertions.assertEquals(20_000, normal);
+        // A few bytes of slack for the counter reads themselves
+        Assertions.assertTrue(allocated < 1024, "getStatus allocated " + allocated + " bytes");
+    }
+
+    /**
+     * Plays a move, asks for the opponent's status and takes the move back,
+     * so every call searches afresh
+     */
+    private static int statusLoop(ChessGame game, MoveList rootMoves, int iterations) {
+        int normal = 0;
+        for(int i = 0; i < iterations; i++) {
+            game.makeMoveUnchecked(rootMoves.get(i % rootMoves.size()));
+            if(game.getStatus(ChessGame.TeamColor.BLACK) == ChessGame.GameStatus.NORMAL) normal++;
+            game.undoMove();
+        }
+        return normal;
+    }
+}
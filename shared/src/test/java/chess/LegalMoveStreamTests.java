@@ -0,0 +1,79 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class LegalMoveStreamTests {
+
+    @Test
+    @DisplayName("Stream Matches Move List")
+    public void matchesMoveList() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        Set<ChessMove> streamed = game.legalMoves().collect(Collectors.toSet());
+        Assertions.assertEquals(new HashSet<>(moves.toChessMoves()), streamed);
+        Assertions.assertEquals(moves.size(), game.legalMoves().count(), "Stream should not repeat moves");
+    }
+
+    @Test
+    @DisplayName("Short-Circuiting Stops Early")
+    public void shortCircuits() {
+        ChessGame game = new ChessGame();
+        AtomicInteger seen = new AtomicInteger();
+        Assertions.assertTrue(game.legalMoves().peek(move -> seen.incrementAndGet()).findFirst().isPresent());
+        Assertions.assertEquals(1, seen.get(), "findFirst should only pull one move");
+
+        seen.set(0);
+        ChessMove knightMove = new ChessMove(new ChessPosition(1, 2), new ChessPosition(3, 3), null);
+        Assertions.assertTrue(game.legalMoves().peek(move -> seen.incrementAndGet()).anyMatch(knightMove::equals));
+        Assertions.assertTrue(seen.get() < 20, "anyMatch should stop at the match, saw " + seen.get());
+    }
+
+    @Test
+    @DisplayName("Stream Binds When Traversal Starts")
+    public void bindsLazily() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Stream<ChessMove> moves = game.legalMoves();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        Assertions.assertTrue(moves.allMatch(move -> game.getBoard().getPiece(move.getStartPosition()).getTeamColor()
+                == ChessGame.TeamColor.BLACK), "Stream built before the move should list Black's replies");
+    }
+
+    @Test
+    @DisplayName("Board Change Mid-Stream Throws")
+    public void concurrentModification() {
+        ChessGame game = new ChessGame();
+        Iterator<ChessMove> moves = game.legalMoves().iterator();
+        Assertions.assertTrue(moves.hasNext());
+        moves.next();
+
+        game.getBoard().addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        ConcurrentModificationException e = Assertions.assertThrows(ConcurrentModificationException.class, moves::hasNext);
+        Assertions.assertEquals("Board changed while streaming legal moves", e.getMessage());
+    }
+
+    @Test
+    @DisplayName("Move Mid-Stream Throws")
+    public void moveMidStream() {
+        ChessGame game = new ChessGame();
+        Assertions.assertThrows(ConcurrentModificationException.class, () -> game.legalMoves().forEach(move -> {
+            if(game.getTeamTurn() == ChessGame.TeamColor.WHITE) {
+                game.makeMoveUnchecked(PackedMove.of(move));
+            }
+        }));
+    }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+public class MoveCacheTests {
+
+    private static final ChessPosition KNIGHT = new ChessPosition(1, 2);
+
+    @Test
+    @DisplayName("Direct Board Edit Invalidates Cached Moves")
+    public void directAddPiece() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(2, game.validMoves(KNIGHT).size());
+
+        game.getBoard().addPiece(new ChessPosition(3, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        Assertions.assertEquals(1, game.validMoves(KNIGHT).size(), "Cached moves should see the new piece");
+
+        game.getBoard().addPiece(new ChessPosition(3, 3), null);
+        Assertions.assertEquals(2, game.validMoves(KNIGHT).size(), "Cached moves should see the piece removed");
+
+        game.getBoard().addPiece(new ChessPosition(3, 1), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        Collection<ChessMove> moves = game.validMoves(KNIGHT);
+        Assertions.assertEquals(2, moves.size(), "Knight can now capture on a3");
+        Assertions.assertTrue(moves.contains(new ChessMove(KNIGHT, new ChessPosition(3, 1), null)));
+    }
+
+    @Test
+    @DisplayName("Set Team Turn Invalidates Cached Moves")
+    public void setTeamTurn() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 1), new ChessPosition(6, 1), null));
+        game.makeMove(new ChessMove(new ChessPosition(4, 5), new ChessPosition(5, 5), null));
+        game.makeMove(new ChessMove(new ChessPosition(7, 4), new ChessPosition(5, 4), null));
+
+        ChessPosition pawn = new ChessPosition(5, 5);
+        ChessMove enPassant = new ChessMove(pawn, new ChessPosition(6, 4), null);
+        Assertions.assertTrue(game.validMoves(pawn).contains(enPassant));
+
+        // Handing the turn away and back forfeits the en passant capture
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.setTeamTurn(ChessGame.TeamColor.WHITE);
+        Assertions.assertFalse(game.validMoves(pawn).contains(enPassant), "Cached moves should drop en passant");
+        Assertions.assertThrows(InvalidMoveException.class, () -> game.makeMove(enPassant));
+    }
+
+    @Test
+    @DisplayName("Set Board Invalidates Cached Moves")
+    public void setBoard() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(2, game.validMoves(KNIGHT).size());
+
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        board.addPiece(KNIGHT, new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
+        game.setBoard(board);
+
+        Assertions.assertEquals(3, game.validMoves(KNIGHT).size(), "Cached moves should come from the new board");
+    }
+}
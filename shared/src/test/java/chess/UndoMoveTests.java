@@ -0,0 +1,154 @@
+package chess;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+
+public class UndoMoveTests {
+
+    @Test
+    @DisplayName("Undo En Passant")
+    public void enPassant() throws InvalidMoveException {
+        ChessGame white = play(move(2, 5, 4, 5, null), move(7, 1, 6, 1, null), move(4, 5, 5, 5, null), move(7, 4, 5, 4, null));
+        assertUndoes(white, move(5, 5, 6, 4, null));
+
+        ChessGame black = play(move(2, 1, 3, 1, null), move(7, 4, 5, 4, null), move(3, 1, 4, 1, null),
+                move(5, 4, 4, 4, null), move(2, 5, 4, 5, null));
+        assertUndoes(black, move(4, 4, 3, 5, null));
+    }
+
+    @Test
+    @DisplayName("Undo Castling Restores Rights")
+    public void castling() {
+        ChessGame game = castlingGame(ChessGame.TeamColor.WHITE);
+        assertUndoes(game, move(1, 5, 1, 7, null));
+        assertUndoes(game, move(1, 5, 1, 3, null));
+        assertUndoes(castlingGame(ChessGame.TeamColor.BLACK), move(8, 5, 8, 3, null));
+
+        game.makeMoveUnchecked(PackedMove.of(move(1, 5, 1, 7, null)));
+        Assertions.assertEquals(ChessPiece.PieceType.ROOK, game.getBoard().getPiece(new ChessPosition(1, 6)).getPieceType());
+        Assertions.assertNull(game.getBoard().getPiece(new ChessPosition(1, 8)));
+        game.undoMove();
+        Assertions.assertTrue(game.validMoves(new ChessPosition(1, 5)).contains(move(1, 5, 1, 3, null)),
+                "Queenside castling should be available again");
+    }
+
+    @Test
+    @DisplayName("Undo Promotion")
+    public void promotion() {
+        ChessBoard board = new ChessBoard();
+        addPiece(board, 7, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        addPiece(board, 8, 2, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        addPiece(board, 2, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        addPiece(board, 1, 2, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        addPiece(board, 1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        addPiece(board, 8, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        assertUndoes(game, move(7, 1, 8, 1, ChessPiece.PieceType.KNIGHT));
+        assertUndoes(game, move(7, 1, 8, 2, ChessPiece.PieceType.QUEEN));
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertUndoes(game, move(2, 1, 1, 2, ChessPiece.PieceType.ROOK));
+    }
+
+    @Test
+    @DisplayName("Undo Captures")
+    public void captures() throws InvalidMoveException {
+        // Rook takes rook in the corner, costing both sides a castling right
+        assertUndoes(castlingGame(ChessGame.TeamColor.WHITE), move(1, 1, 8, 1, null));
+        assertUndoes(play(move(2, 5, 4, 5, null), move(7, 4, 5, 4, null)), move(4, 5, 5, 4, null));
+    }
+
+    @Test
+    @DisplayName("Undo Many Moves Back To Start")
+    public void manyMoves() throws InvalidMoveException {
+        ChessMove[] moves = {
+                move(2, 5, 4, 5, null), move(7, 4, 5, 4, null), move(4, 5, 5, 4, null), move(7, 3, 5, 3, null),
+                move(5, 4, 6, 3, null), move(8, 2, 6, 3, null), move(1, 7, 3, 6, null), move(8, 3, 4, 7, null),
+                move(1, 6, 2, 5, null), move(8, 4, 5, 4, null), move(1, 5, 1, 7, null), move(8, 5, 8, 3, null),
+        };
+        ChessGame game = play(moves);
+        Assertions.assertEquals(6, game.getHalfmoveClock());
+        Assertions.assertEquals(7, game.getFullmoveNumber());
+
+        for(int i = moves.length - 1; i >= 0; i--) {
+            Assertions.assertEquals(moves[i], game.takeBack());
+        }
+        ChessGame start = new ChessGame();
+        Assertions.assertEquals(start, game);
+        Assertions.assertEquals(start.getZobristKey(), game.getZobristKey());
+        Assertions.assertEquals(0, game.getHalfmoveClock());
+        Assertions.assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    @DisplayName("Undo With Nothing To Undo")
+    public void emptyHistory() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove);
+        Assertions.assertThrows(InvalidMoveException.class, game::takeBack);
+
+        game.makeMove(move(2, 5, 4, 5, null));
+        game.setBoard(new ChessBoard());
+        Assertions.assertThrows(IllegalStateException.class, game::undoMove, "Setting the board should clear the history");
+    }
+
+    /**
+     * Makes and takes back a move, then checks that every part of the game
+     * is as it was, including the moves available afterward
+     */
+    private static void assertUndoes(ChessGame game, ChessMove move) {
+        ChessGame before = new ChessGame(game);
+        MoveList legal = new MoveList();
+        game.legalMoves(legal);
+        Assertions.assertTrue(legal.contains(PackedMove.of(move)), move + " should be legal");
+
+        game.makeMoveUnchecked(PackedMove.of(move));
+        Assertions.assertNotEquals(before.getZobristKey(), game.getZobristKey());
+        game.undoMove();
+
+        Assertions.assertEquals(before, game, "Undoing " + move);
+        Assertions.assertEquals(before.getZobristKey(), game.getZobristKey(), "Undoing " + move);
+        Assertions.assertEquals(before.getTeamTurn(), game.getTeamTurn(), "Undoing " + move);
+        Assertions.assertEquals(before.getHalfmoveClock(), game.getHalfmoveClock(), "Undoing " + move);
+        Assertions.assertEquals(before.getFullmoveNumber(), game.getFullmoveNumber(), "Undoing " + move);
+
+        MoveList after = new MoveList();
+        game.legalMoves(after);
+        Assertions.assertEquals(new HashSet<>(legal.toChessMoves()), new HashSet<>(after.toChessMoves()),
+                "Undoing " + move + " should restore the legal moves");
+    }
+
+    private static ChessGame play(ChessMove... moves) throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        for(ChessMove move : moves) {
+            game.makeMove(move);
+        }
+        return game;
+    }
+
+    private static ChessGame castlingGame(ChessGame.TeamColor turn) {
+        ChessBoard board = new ChessBoard();
+        for(ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            int row = (color == ChessGame.TeamColor.WHITE) ? 1 : 8;
+            addPiece(board, row, 1, color, ChessPiece.PieceType.ROOK);
+            addPiece(board, row, 5, color, ChessPiece.PieceType.KING);
+            addPiece(board, row, 8, color, ChessPiece.PieceType.ROOK);
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    private static void addPiece(ChessBoard board, int row, int column, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(new ChessPosition(row, column), new ChessPiece(color, type));
+    }
+
+    private static ChessMove move(int fromRow, int fromColumn, int toRow, int toColumn, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromColumn), new ChessPosition(toRow, toColumn), promotion);
+    }
+}
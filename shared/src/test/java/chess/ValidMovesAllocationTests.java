@@ -0,0 +1,86 @@
+package chess;
+
+import com.sun.management.ThreadMXBean;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashSet;
+
+public class ValidMovesAllocationTests {
+
+    private static final int ITERATIONS = 20_000;
+
+    @Test
+    @DisplayName("Buffer Overload Matches Collection")
+    public void bufferMatchesCollection() {
+        ChessGame game = ChessGame.fromFen(PerftPosition.STANDARD.get(1).fen());
+        MoveList moves = new MoveList();
+        for(int row = 1; row <= 8; row++) {
+            for(int col = 1; col <= 8; col++) {
+                ChessPosition position = new ChessPosition(row, col);
+                moves.clear();
+                int count = game.validMoves(position, moves);
+                Collection<ChessMove> expected = game.validMoves(position);
+                Assertions.assertEquals((expected == null) ? 0 : expected.size(), count, "Wrong count at " + position);
+                Assertions.assertEquals(count, moves.size());
+                if(expected != null) {
+                    Assertions.assertEquals(new HashSet<>(expected), new HashSet<>(moves.toChessMoves()),
+                            "Wrong moves at " + position);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Validation Path Allocates Nothing")
+    public void validationAllocatesNothing() {
+        Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof ThreadMXBean,
+                "Thread allocation counters unavailable");
+        ThreadMXBean bean = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(bean.isThreadAllocatedMemorySupported(), "Thread allocation counters unavailable");
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        ChessGame game = ChessGame.fromFen(PerftPosition.STANDARD.get(1).fen());
+        MoveList moves = new MoveList(256);
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+        ChessPosition[] positions = new ChessPosition[64];
+        for(int square = 0; square < 64; square++) {
+            positions[square] = ChessPosition.of(square / 8 + 1, square % 8 + 1);
+        }
+
+        validateAll(game, positions, rootMoves, moves, ITERATIONS);     // warm up
+
+        long thread = Thread.currentThread().threadId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        long checksum = validateAll(game, positions, rootMoves, moves, ITERATIONS);
+        long allocated = bean.getThreadAllocatedBytes(thread) - before;
+
+        Assertions.assertTrue(checksum > 0);
+        // A few bytes of slack for the counter reads themselves
+        Assertions.assertTrue(allocated < 1024, "Validation allocated " + allocated + " bytes over " + ITERATIONS + " positions");
+    }
+
+    /**
+     * Validates every square, then plays and takes back a move so the next
+     * pass regenerates the move cache
+     */
+    private static long validateAll(ChessGame game, ChessPosition[] positions, MoveList rootMoves, MoveList moves,
+                                    int iterations) {
+        long total = 0;
+        for(int i = 0; i < iterations; i++) {
+            for(ChessPosition position : positions) {
+                moves.clear();
+                total += game.validMoves(position, moves);
+            }
+            game.makeMoveUnchecked(rootMoves.get(i % rootMoves.size()));
+            game.undoMove();
+        }
+        return total;
+    }
+}
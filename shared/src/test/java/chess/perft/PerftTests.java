@@ -0,0 +1,91 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class PerftTests {
+
+    /**
+     * Deep enough to reach castling, en passant and promotions in every
+     * position while keeping the suite to a few seconds; run
+     * {@code Perft --suite} for the full depths.
+     */
+    private static final long MAX_NODES_PER_TEST = 5_000_000;
+
+    @Test
+    @DisplayName("Standard Perft Suite")
+    public void standardSuite() {
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            Perft perft = new Perft(ChessGame.fromFen(position.fen()), position.maxDepth());
+            for(int depth = 1; depth <= position.maxDepth() && position.expectedNodes(depth) <= MAX_NODES_PER_TEST; depth++) {
+                Assertions.assertEquals(position.expectedNodes(depth), perft.count(depth),
+                        "Wrong node count for " + position.name() + " at depth " + depth);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Divide Sums To Total")
+    public void divideSumsToTotal() {
+        PerftPosition kiwipete = PerftPosition.STANDARD.get(1);
+        Perft perft = new Perft(ChessGame.fromFen(kiwipete.fen()), 3);
+
+        Map<ChessMove, Long> divide = perft.divide(3);
+        Assertions.assertEquals(kiwipete.expectedNodes(1), divide.size(), "Divide should list every root move");
+        Assertions.assertEquals(kiwipete.expectedNodes(3), divide.values().stream().mapToLong(Long::longValue).sum(),
+                "Divide counts should add up to the perft total");
+    }
+
+    @Test
+    @DisplayName("Perft Leaves Game Unchanged")
+    public void perftRestoresGame() {
+        ChessGame game = ChessGame.fromFen(PerftPosition.STANDARD.get(1).fen());
+        ChessGame original = new ChessGame(game);
+
+        new Perft(game, 3).count(3);
+
+        Assertions.assertEquals(original, game, "Game should be restored after perft");
+        Assertions.assertEquals(original.getZobristKey(), game.getZobristKey(), "Zobrist key should be restored after perft");
+    }
+
+    @Test
+    @DisplayName("Parallel Perft Matches Serial")
+    public void parallelMatchesSerial() {
+        PerftPosition kiwipete = PerftPosition.STANDARD.get(1);
+        ParallelPerft parallel = new ParallelPerft(4);
+        try {
+            Assertions.assertEquals(kiwipete.expectedNodes(4), parallel.count(ChessGame.fromFen(kiwipete.fen()), 4),
+                    "Parallel perft should count the same nodes as serial");
+        } finally {
+            parallel.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Shallow And Negative Depths")
+    public void shallowDepths() {
+        ChessGame game = new ChessGame();
+        Perft perft = new Perft(game, 1);
+        ParallelPerft parallel = new ParallelPerft(2);
+        try {
+            Assertions.assertEquals(1, perft.count(0));
+            Assertions.assertEquals(1, parallel.count(game, 0));
+            Assertions.assertEquals(perft.divide(0), parallel.divide(game, 0));
+            Assertions.assertEquals(perft.divide(1), parallel.divide(game, 1));
+            Assertions.assertEquals(20, parallel.count(game, 1));
+
+            Assertions.assertThrows(IllegalArgumentException.class, () -> perft.count(-1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> perft.count(2), "Deeper than maxDepth");
+            Assertions.assertThrows(IllegalArgumentException.class, () -> new Perft(game, 3).divide(5));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> parallel.count(game, -1));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> parallel.divide(game, -1));
+        } finally {
+            parallel.shutdown();
+        }
+    }
+}
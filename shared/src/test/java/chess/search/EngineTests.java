@@ -0,0 +1,82 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class EngineTests {
+
+    @Test
+    @DisplayName("Finds Back Rank Mate")
+    public void findsMateInOne() {
+        ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(4));
+
+        Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+        Assertions.assertTrue(result.isMateScore(), "Score should announce mate: " + result.score());
+    }
+
+    @Test
+    @DisplayName("Wins Hanging Queen")
+    public void winsHangingQueen() {
+        ChessGame game = ChessGame.fromFen("4k3/8/8/3q4/8/8/3R4/4K3 w - - 0 1");
+        ChessMove move = new Engine().bestMove(game, SearchLimits.depth(3));
+        Assertions.assertEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), move);
+    }
+
+    @Test
+    @DisplayName("Avoids Defended Capture")
+    public void avoidsPoisonedPawn() {
+        // Rxd5 loses the rook to the pawn on e6
+        ChessGame game = ChessGame.fromFen("4k3/8/4p3/3p4/8/8/3R4/4K3 w - - 0 1");
+        ChessMove move = new Engine().bestMove(game, SearchLimits.depth(2));
+        Assertions.assertNotEquals(new ChessMove(new ChessPosition(2, 4), new ChessPosition(5, 4), null), move);
+    }
+
+    @Test
+    @DisplayName("No Move When Checkmated")
+    public void noMoveWhenMated() {
+        ChessGame game = ChessGame.fromFen("R5k1/5ppp/8/8/8/8/8/6K1 b - - 0 1");
+        SearchResult result = new Engine().search(game, SearchLimits.depth(3));
+        Assertions.assertNull(result.bestMove());
+        Assertions.assertEquals(-Engine.MATE, result.score());
+    }
+
+    @Test
+    @DisplayName("Respects Budgets And Leaves Game Unchanged")
+    public void respectsBudgets() {
+        ChessGame game = new ChessGame();
+        ChessGame before = new ChessGame(game);
+        Engine engine = new Engine();
+
+        long start = System.nanoTime();
+        SearchResult timed = engine.search(game, SearchLimits.time(100));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Assertions.assertNotNull(timed.bestMove());
+        Assertions.assertTrue(elapsedMillis < 1000, "Search overran its deadline: " + elapsedMillis + " ms");
+
+        SearchResult budgeted = engine.search(game, SearchLimits.nodes(20_000));
+        Assertions.assertNotNull(budgeted.bestMove());
+        Assertions.assertTrue(budgeted.nodes() < 20_000 + 4096, "Search overran its node budget: " + budgeted.nodes());
+
+        Assertions.assertEquals(before, game, "Search should not modify the game");
+        Assertions.assertEquals(before.getZobristKey(), game.getZobristKey());
+    }
+
+    @Test
+    @DisplayName("Deadline Survives nanoTime Wrapping")
+    public void deadlineWraps() {
+        long start = Long.MAX_VALUE - 1_000;
+        long deadline = SearchLimits.time(100).deadline(start);
+        Assertions.assertTrue(deadline < start, "Deadline should wrap past Long.MAX_VALUE");
+        Assertions.assertTrue(start - deadline < 0, "Search should not stop at the start");
+        Assertions.assertTrue((start + 100_000_000) - deadline >= 0, "Search should stop at the deadline");
+
+        Assertions.assertTrue(SearchLimits.time(100).hasTimeLimit());
+        Assertions.assertFalse(SearchLimits.depth(3).hasTimeLimit());
+        Assertions.assertFalse(SearchLimits.nodes(1_000).hasTimeLimit());
+    }
+}
@@ -0,0 +1,91 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.perft.PerftPosition;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Measures {@link NnueEvaluator} throughput. Kept with the tests so the
+ * search package doesn't depend on the perft positions.
+ */
+public class NnueBenchmark {
+
+    /**
+     * Benchmark entry point: {@code NnueBenchmark [--seconds s] [--hidden n] [weights-file]}.
+     * Reports full evaluations (refresh plus output) and incremental ones
+     * (make, evaluate, undo along random games) per second. Uses random weights
+     * when no file is given.
+     */
+    public static void main(String[] args) throws IOException {
+        double seconds = 2;
+        int hidden = 256;
+        Path weights = null;
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--seconds" -> seconds = Double.parseDouble(args[++i]);
+                case "--hidden" -> hidden = Integer.parseInt(args[++i]);
+                default -> weights = Path.of(args[i]);
+            }
+        }
+        NnueNetwork network = (weights == null) ? NnueNetwork.random(hidden, 1) : NnueNetwork.load(weights);
+        System.out.println("hidden size " + network.hiddenSize());
+
+        for(int round = 0; round < 2; round++) {
+            String label = (round == 0) ? "warm-up " : "";
+            report(label + "full        ", benchmarkFull(network, seconds));
+            report(label + "incremental ", benchmarkIncremental(network, seconds));
+        }
+    }
+
+    private static long[] benchmarkFull(NnueNetwork network, double seconds) {
+        NnueEvaluator evaluator = new NnueEvaluator(network);
+        ChessGame[] games = new ChessGame[PerftPosition.STANDARD.size()];
+        for(int i = 0; i < games.length; i++) {
+            games[i] = ChessGame.fromFen(PerftPosition.STANDARD.get(i).fen());
+        }
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        long evaluations = 0;
+        long checksum = 0;
+        while(System.nanoTime() < end) {
+            for(ChessGame game : games) {
+                // Not attached, so each evaluation rebuilds the accumulators
+                checksum += evaluator.evaluate(game);
+                evaluations++;
+            }
+        }
+        return new long[]{evaluations, (long) (seconds * 1e9), checksum};
+    }
+
+    private static long[] benchmarkIncremental(NnueNetwork network, double seconds) {
+        NnueEvaluator evaluator = new NnueEvaluator(network);
+        SplittableRandom random = new SplittableRandom(1);
+        MoveList moves = new MoveList();
+        long end = System.nanoTime() + (long) (seconds * 1e9);
+        long evaluations = 0;
+        long checksum = 0;
+        while(System.nanoTime() < end) {
+            ChessGame game = new ChessGame();
+            evaluator.attach(game);
+            for(int ply = 0; ply < 80; ply++) {
+                moves.clear();
+                if(game.legalMoves(moves) == 0) break;
+                for(int i = 0; i < moves.size(); i++) {
+                    game.makeMoveUnchecked(moves.get(i));
+                    checksum += evaluator.evaluate(game);
+                    game.undoMove();
+                    evaluations++;
+                }
+                game.makeMoveUnchecked(moves.get(random.nextInt(moves.size())));
+            }
+        }
+        return new long[]{evaluations, (long) (seconds * 1e9), checksum};
+    }
+
+    private static void report(String label, long[] result) {
+        System.out.printf("%s %,.0f evaluations/sec (checksum %d)%n", label, result[0] * 1e9 / result[1], result[2]);
+    }
+}
@@ -0,0 +1,158 @@
+package chess.search;
+
+import chess.BoardListener;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.MoveList;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+public class NnueEvaluatorTests {
+
+    private static final NnueNetwork NETWORK = NnueNetwork.random(64, 42);
+
+    @Test
+    @DisplayName("Incremental Accumulators Match Refresh")
+    public void incrementalMatchesRefresh() {
+        SplittableRandom random = new SplittableRandom(3);
+        MoveList moves = new MoveList();
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            NnueEvaluator incremental = new NnueEvaluator(NETWORK);
+            incremental.attach(game);
+            int startScore = incremental.evaluate(game);
+
+            int played = 0;
+            for(int ply = 0; ply < 60; ply++) {
+                moves.clear();
+                if(game.legalMoves(moves) == 0) break;
+                game.makeMoveUnchecked(moves.get(random.nextInt(moves.size())));
+                played++;
+
+                ChessGame copy = new ChessGame(game);
+                Assertions.assertEquals(new NnueEvaluator(NETWORK).evaluate(copy), incremental.evaluate(game),
+                        "Accumulators drifted in " + position.name() + " after " + played + " moves");
+            }
+            for(int i = 0; i < played; i++) {
+                game.undoMove();
+            }
+            Assertions.assertEquals(startScore, incremental.evaluate(game), "Undo should restore the accumulators");
+        }
+    }
+
+    @Test
+    @DisplayName("Attach And Detach Restore The Listener")
+    public void attachDetach() {
+        ChessGame game = new ChessGame();
+        BoardListener previous = new BoardListener() {
+            @Override
+            public void pieceAdded(ChessPiece piece, int square) {
+            }
+
+            @Override
+            public void pieceRemoved(ChessPiece piece, int square) {
+            }
+        };
+        game.getBoard().setListener(previous);
+
+        NnueEvaluator evaluator = new NnueEvaluator(NETWORK);
+        int score = evaluator.evaluate(game);
+        Assertions.assertSame(previous, game.getBoard().getListener(), "Evaluating should not take over the board");
+
+        evaluator.attach(game);
+        Assertions.assertSame(evaluator, game.getBoard().getListener());
+        Assertions.assertEquals(score, evaluator.evaluate(game));
+
+        evaluator.attach(new ChessGame());
+        Assertions.assertSame(previous, game.getBoard().getListener(), "Attaching elsewhere should detach first");
+        evaluator.detach();
+        evaluator.detach();
+
+        // Unattached boards are still scored correctly after edits
+        game.getBoard().addPiece(new ChessPosition(1, 4), null);
+        Assertions.assertNotEquals(score, evaluator.evaluate(game));
+    }
+
+    @Test
+    @DisplayName("Large Hidden Layer Does Not Overflow")
+    public void largeHiddenLayer() throws IOException {
+        // Every neuron saturated with the largest output weight: 2 * 512 * 255 * 32767 is past Integer.MAX_VALUE
+        int hidden = 512;
+        ByteBuffer buffer = ByteBuffer.allocate(12 + 2 * ((NnueNetwork.INPUTS + 3) * hidden + 1)).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(0x45554E4E).putInt(1).putInt(hidden);
+        buffer.position(buffer.position() + 2 * NnueNetwork.INPUTS * hidden);
+        for(int i = 0; i < hidden; i++) {
+            buffer.putShort((short) 255);
+        }
+        for(int i = 0; i < 2 * hidden; i++) {
+            buffer.putShort(Short.MAX_VALUE);
+        }
+        Path file = Files.createTempFile("network", ".nnue");
+        try {
+            Files.write(file, buffer.array());
+            NnueEvaluator evaluator = new NnueEvaluator(NnueNetwork.load(file));
+            long expected = 2L * hidden * 255 * Short.MAX_VALUE * 400 / (255 * 64);
+            Assertions.assertEquals(expected, evaluator.evaluate(new ChessGame()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Scores The Same")
+    public void mirroredPosition() {
+        NnueEvaluator evaluator = new NnueEvaluator(NETWORK);
+        int white = evaluator.evaluate(ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K2R w - - 0 1"));
+        int black = evaluator.evaluate(ChessGame.fromFen("4k2r/4p3/8/8/8/8/8/4K3 b - - 0 1"));
+        Assertions.assertEquals(white, black);
+    }
+
+    @Test
+    @DisplayName("Weights File Round Trip")
+    public void weightsRoundTrip() throws IOException {
+        Path file = Files.createTempFile("network", ".nnue");
+        try {
+            NETWORK.write(file);
+            NnueNetwork loaded = NnueNetwork.load(file);
+            Assertions.assertEquals(NETWORK.hiddenSize(), loaded.hiddenSize());
+
+            ChessGame game = ChessGame.fromFen(PerftPosition.STANDARD.get(1).fen());
+            Assertions.assertEquals(new NnueEvaluator(NETWORK).evaluate(game), new NnueEvaluator(loaded).evaluate(game));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Rejects Foreign File")
+    public void rejectsForeignFile() throws IOException {
+        Path file = Files.createTempFile("network", ".nnue");
+        try {
+            Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13});
+            Assertions.assertThrows(IOException.class, () -> NnueNetwork.load(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    @DisplayName("Drives A Search")
+    public void drivesSearch() {
+        Engine engine = new Engine(new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                new NnueEvaluator(NETWORK));
+        ChessGame game = new ChessGame();
+        SearchResult result = engine.search(game, SearchLimits.depth(3));
+        Assertions.assertNotNull(result.bestMove());
+        Assertions.assertEquals(new ChessGame(), game, "Search should not modify the game");
+    }
+}
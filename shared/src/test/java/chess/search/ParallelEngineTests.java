@@ -0,0 +1,46 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ParallelEngineTests {
+
+    @Test
+    @DisplayName("Helpers Agree On Mate")
+    public void findsMate() {
+        ParallelEngine engine = new ParallelEngine(3);
+        try {
+            ChessGame game = ChessGame.fromFen("6k1/5ppp/8/8/8/8/8/R5K1 w - - 0 1");
+            SearchResult result = engine.search(game, SearchLimits.depth(5));
+            Assertions.assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestMove());
+            Assertions.assertTrue(result.isMateScore());
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Stops At Deadline And Leaves Game Unchanged")
+    public void stopsAtDeadline() {
+        ParallelEngine engine = new ParallelEngine(4);
+        try {
+            ChessGame game = new ChessGame();
+            ChessGame before = new ChessGame(game);
+
+            long start = System.nanoTime();
+            SearchResult result = engine.search(game, SearchLimits.time(200));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            Assertions.assertNotNull(result.bestMove());
+            Assertions.assertTrue(result.depth() >= 1);
+            Assertions.assertTrue(elapsedMillis < 1500, "Search overran its deadline: " + elapsedMillis + " ms");
+            Assertions.assertEquals(before, game, "Search should not modify the game");
+        } finally {
+            engine.shutdown();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.MoveList;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+public class PieceSquareEvaluatorTests {
+
+    @Test
+    @DisplayName("Starting Position Is Balanced")
+    public void startingPositionBalanced() {
+        ChessGame game = new ChessGame();
+        Assertions.assertEquals(0, game.getBoard().getPositionalScore());
+        Assertions.assertEquals(0, new PieceSquareEvaluator().evaluate(game));
+    }
+
+    @Test
+    @DisplayName("Mirrored Position Negates Score")
+    public void mirroredPosition() {
+        ChessGame white = ChessGame.fromFen("4k3/8/8/8/8/8/4P3/4K2R w - - 0 1");
+        ChessGame black = ChessGame.fromFen("4k2r/4p3/8/8/8/8/8/4K3 b - - 0 1");
+        Assertions.assertEquals(white.getBoard().getPositionalScore(), -black.getBoard().getPositionalScore());
+        Assertions.assertEquals(new PieceSquareEvaluator().evaluate(white), new PieceSquareEvaluator().evaluate(black));
+    }
+
+    @Test
+    @DisplayName("Incremental Score Never Drifts")
+    public void noDrift() {
+        SplittableRandom random = new SplittableRandom(7);
+        MoveList moves = new MoveList();
+        for(PerftPosition position : PerftPosition.STANDARD) {
+            ChessGame game = ChessGame.fromFen(position.fen());
+            int startScore = game.getBoard().getPositionalScore();
+            int played = 0;
+            for(int ply = 0; ply < 200; ply++) {
+                moves.clear();
+                if(game.legalMoves(moves) == 0 || game.getHalfmoveClock() >= 100) break;
+                game.makeMoveUnchecked(moves.get(random.nextInt(moves.size())));
+                played++;
+                Assertions.assertEquals(game.getBoard().rescanPositionalScore(), game.getBoard().getPositionalScore(),
+                        "Score drifted in " + position.name() + " after " + played + " moves");
+            }
+            for(int i = 0; i < played; i++) {
+                game.undoMove();
+            }
+            Assertions.assertEquals(startScore, game.getBoard().getPositionalScore());
+        }
+    }
+
+    @Test
+    @DisplayName("Verified Search Runs Clean")
+    public void verifiedSearch() {
+        Engine engine = new Engine(new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED),
+                new PieceSquareEvaluator(true));
+        SearchResult result = engine.search(ChessGame.fromFen(PerftPosition.STANDARD.get(1).fen()), SearchLimits.depth(3));
+        Assertions.assertNotNull(result.bestMove());
+    }
+}
@@ -0,0 +1,120 @@
+package chess.search;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+public class TranspositionTableTests {
+
+    @Test
+    @DisplayName("Store Then Probe")
+    public void storeThenProbe() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        long key = new ChessGame().getZobristKey();
+
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key), "Empty table should miss");
+        table.store(key, 7, 123456789L);
+
+        long data = table.probe(key);
+        Assertions.assertNotEquals(TranspositionTable.MISS, data, "Stored position should hit");
+        Assertions.assertEquals(7, TranspositionTable.depth(data));
+        Assertions.assertEquals(123456789L, TranspositionTable.payload(data));
+        Assertions.assertEquals(1, table.getHits());
+        Assertions.assertEquals(1, table.getMisses());
+    }
+
+    @Test
+    @DisplayName("Rejects Out Of Range Stores")
+    public void rejectsOutOfRange() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        long key = new ChessGame().getZobristKey();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> table.store(key, 3, -1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> table.store(key, 3, TranspositionTable.MAX_PAYLOAD + 1));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> table.store(key, -1, 5));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(key), "Rejected stores should leave the slot empty");
+
+        table.store(key, 300, TranspositionTable.MAX_PAYLOAD);
+        long data = table.probe(key);
+        Assertions.assertEquals(TranspositionTable.MAX_DEPTH, TranspositionTable.depth(data));
+        Assertions.assertEquals(TranspositionTable.MAX_PAYLOAD, TranspositionTable.payload(data));
+    }
+
+    @Test
+    @DisplayName("Power Of Two Capacity")
+    public void powerOfTwoCapacity() {
+        TranspositionTable table = new TranspositionTable(3, TranspositionTable.ReplacementPolicy.ALWAYS);
+        Assertions.assertEquals(1, Integer.bitCount(table.getCapacity()), "Capacity should be a power of two");
+        Assertions.assertTrue(table.getSizeInBytes() <= 3L << 20, "Table should not exceed the requested size");
+    }
+
+    @Test
+    @DisplayName("Depth Preferred Replacement")
+    public void depthPreferredReplacement() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.DEPTH_PREFERRED);
+        // Same index bits (high half), different keys
+        long deep = 0x0000_0001_0000_0001L;
+        long shallow = 0x0000_0001_0000_0002L;
+
+        table.store(deep, 10, 1);
+        table.store(shallow, 3, 2);
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(shallow), "Shallower entry should be rejected");
+        Assertions.assertEquals(1, table.getCollisions());
+        Assertions.assertEquals(1, table.getRejectedStores());
+        Assertions.assertEquals(1, TranspositionTable.payload(table.probe(deep)));
+
+        table.newSearch();
+        table.store(shallow, 3, 2);
+        Assertions.assertEquals(2, TranspositionTable.payload(table.probe(shallow)),
+                "Entries from an earlier search should be replaceable");
+    }
+
+    @Test
+    @DisplayName("Always Replace")
+    public void alwaysReplace() {
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        long first = 0x0000_0001_0000_0001L;
+        long second = 0x0000_0001_0000_0002L;
+
+        table.store(first, 10, 1);
+        table.store(second, 3, 2);
+        Assertions.assertEquals(2, TranspositionTable.payload(table.probe(second)));
+        Assertions.assertEquals(TranspositionTable.MISS, table.probe(first));
+    }
+
+    @Test
+    @DisplayName("Concurrent Stores Never Return Foreign Data")
+    public void concurrentStores() throws InterruptedException {
+        // A tiny table so threads constantly overwrite each other's slots
+        TranspositionTable table = new TranspositionTable(1, TranspositionTable.ReplacementPolicy.ALWAYS);
+        List<Thread> threads = new ArrayList<>();
+        List<AssertionError> failures = new ArrayList<>();
+
+        for(int t = 0; t < 4; t++) {
+            long seed = t;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for(int i = 0; i < 200_000; i++) {
+                    // Keys with only 64 distinct index values, payload derived from the key
+                    long key = ((long) random.nextInt(64) << 32) | (random.nextLong() & 0xFFFF_FFFFL);
+                    table.store(key, 1, key & TranspositionTable.MAX_PAYLOAD);
+                    long data = table.probe(key);
+                    if(data != TranspositionTable.MISS && TranspositionTable.payload(data) != (key & TranspositionTable.MAX_PAYLOAD)) {
+                        synchronized(failures) {
+                            failures.add(new AssertionError("Probe returned another position's data"));
+                        }
+                    }
+                }
+            }));
+        }
+        for(Thread thread : threads) thread.start();
+        for(Thread thread : threads) thread.join();
+
+        Assertions.assertTrue(failures.isEmpty(), "Probe returned another position's data");
+    }
+}